@@ -0,0 +1,88 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for amending and saving a whole file with each edit engine. The output may either be deleted before each
+ * invocation, so every save publishes a new file, or left in place, so every save finds identical content already
+ * there - the common case when re-running over an unchanged corpus.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class AmendAndSaveBenchmark
+{
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    public SpecFixture fixture;
+
+    @Param({"LINES", "STREAMING", "BYTES"})
+    public String editEngine;
+
+    @Param({"new", "unchanged"})
+    public String output;
+
+    private Path workDirectory;
+    private Path pathToInputFile;
+    private Path outputDirectory;
+    private Path pathToOutputFile;
+
+    @Setup(Level.Trial)
+    public void setUp()
+            throws Throwable
+    {
+        this.workDirectory = Files.createTempDirectory("amend-and-save-benchmark");
+        this.pathToInputFile = this.fixture.write(this.workDirectory, "CheckoutService", 70);
+        this.outputDirectory = Files.createDirectory(this.workDirectory.resolve("out"));
+        this.pathToOutputFile = this.outputDirectory.resolve(this.pathToInputFile.getFileName());
+
+        // save once so that an identical output is already in place
+        Editor.amendAndSave(Editor.newYamlFile(this.pathToInputFile, this.outputDirectory, this.editEngine));
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareOutput()
+            throws Exception
+    {
+        if (this.output.equals("new"))
+        {
+            Files.deleteIfExists(this.pathToOutputFile);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+            throws Exception
+    {
+        Fixtures.deleteDirectory(this.workDirectory);
+    }
+
+    @Benchmark
+    public Object amendAndSave()
+            throws Throwable
+    {
+        Object file = Editor.newYamlFile(this.pathToInputFile, this.outputDirectory, this.editEngine);
+
+        Editor.amendAndSave(file);
+
+        return file;
+    }
+}
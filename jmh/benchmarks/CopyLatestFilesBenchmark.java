@@ -0,0 +1,105 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for completing the latest versions subdirectory after a run over a corpus of several versions of each
+ * collection. Each invocation treats every latest version as not yet saved during the run, so all of them are either
+ * copied into an empty subdirectory or checked against copies already in place, followed by the sweep removing
+ * superseded versions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class CopyLatestFilesBenchmark
+{
+    private static final int COLLECTIONS = 20;
+
+    private static final int VERSIONS = 5;
+
+    @Param({"SMALL", "MEDIUM"})
+    public SpecFixture fixture;
+
+    @Param({"empty", "populated"})
+    public String latestDirectory;
+
+    private Path workDirectory;
+    private Path pathToLatestDirectory;
+    private Object service;
+
+    @Setup(Level.Trial)
+    public void setUp()
+            throws Throwable
+    {
+        this.workDirectory = Files.createTempDirectory("copy-latest-files-benchmark");
+
+        Path inputDirectory = Files.createDirectory(this.workDirectory.resolve("in"));
+        Path outputDirectory = Files.createDirectory(this.workDirectory.resolve("out"));
+
+        for (int collection = 0; collection < COLLECTIONS; collection++)
+        {
+            for (int version = 1; version <= VERSIONS; version++)
+            {
+                this.fixture.write(inputDirectory, "Collection" + collection + "Service", version);
+            }
+        }
+
+        this.pathToLatestDirectory = outputDirectory.resolve("latest");
+        this.service = Editor.newService(inputDirectory, outputDirectory, true);
+
+        // full run identifies latest versions and populates both output subdirectories
+        Editor.run(this.service);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareLatestDirectory()
+            throws Throwable
+    {
+        Editor.getSavedLatestPaths(this.service).clear();
+
+        if (this.latestDirectory.equals("empty"))
+        {
+            try (DirectoryStream<Path> latestFiles = Files.newDirectoryStream(this.pathToLatestDirectory))
+            {
+                for (Path latestFile : latestFiles)
+                {
+                    Files.delete(latestFile);
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+            throws Exception
+    {
+        Fixtures.deleteDirectory(this.workDirectory);
+    }
+
+    @Benchmark
+    public void copyLatestFiles()
+            throws Throwable
+    {
+        Editor.copyLatestFiles(this.service);
+    }
+}
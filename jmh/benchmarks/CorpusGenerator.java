@@ -0,0 +1,211 @@
+package benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.Reader;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * This class generates a synthetic corpus of OpenAPI specs for scaling benchmarks: a number of collections, each with
+ * a number of versions named following the "{collection}-v{version}.yaml" convention. File sizes are spread
+ * log-uniformly between a minimum and maximum, so that - as with published specs - most files are small and a few
+ * are very large. The parameters used are recorded alongside the corpus, and an existing corpus generated with the
+ * same parameters is reused rather than written again. Specs from a corpus generated with different parameters are
+ * removed first, but any other content of the directory is left in place.
+ *
+ * Usage: CorpusGenerator directory collections versions minSize maxSize securityDensity [seed]
+ * Sizes accept KB, MB and GB suffixes, e.g. 10KB or 200MB.
+ */
+public class CorpusGenerator
+{
+    // region STATIC VARIABLES
+
+    public static final String PARAMETERS_FILE_NAME = "corpus.properties";
+
+    // endregion
+
+    // region INSTANCE VARIABLES
+
+    private final int collections;
+    private final int versions;
+    private final long minBytes;
+    private final long maxBytes;
+    private final double securityDensity;
+    private final long seed;
+
+    // endregion
+
+    /**
+     * Public constructor.
+     *
+     * @param collections     number of collections
+     * @param versions        number of versions of each collection
+     * @param minBytes        approximate size of the smallest file in bytes
+     * @param maxBytes        approximate size of the largest file in bytes
+     * @param securityDensity fraction of operations carrying a request-level security block, between 0 and 1
+     * @param seed            seed for the random spread of file sizes
+     */
+    public CorpusGenerator(int collections, int versions, long minBytes, long maxBytes, double securityDensity,
+            long seed)
+    {
+        this.collections = collections;
+        this.versions = versions;
+        this.minBytes = minBytes;
+        this.maxBytes = maxBytes;
+        this.securityDensity = securityDensity;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args)
+            throws Exception
+    {
+        if (args.length < 6)
+        {
+            throw new IllegalArgumentException(
+                    "Usage: CorpusGenerator directory collections versions minSize maxSize securityDensity [seed]");
+        }
+
+        CorpusGenerator generator = new CorpusGenerator(Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                parseSize(args[3]), parseSize(args[4]), Double.parseDouble(args[5]),
+                args.length > 6 ? Long.parseLong(args[6]) : 1);
+
+        generator.generate(Paths.get(args[0]));
+    }
+
+    /**
+     * Method to write the corpus to a directory, unless it already holds a corpus generated with the same parameters.
+     *
+     * @param directory Path to directory to write to
+     * @throws Exception
+     */
+    public void generate(Path directory)
+            throws Exception
+    {
+        Path pathToParametersFile = directory.resolve(PARAMETERS_FILE_NAME);
+        Properties parameters = getParameters();
+
+        if (Files.exists(pathToParametersFile))
+        {
+            Properties existingParameters = new Properties();
+
+            try (Reader reader = Files.newBufferedReader(pathToParametersFile))
+            {
+                existingParameters.load(reader);
+            }
+
+            if (existingParameters.equals(parameters))
+            {
+                System.out.println("Reusing corpus in " + directory);
+                return;
+            }
+        }
+
+        Files.createDirectories(directory);
+
+        // remove the record first, so an interrupted run is never mistaken for a complete corpus
+        Files.deleteIfExists(pathToParametersFile);
+
+        // remove specs left by a corpus generated with different parameters
+        try (DirectoryStream<Path> existingFiles = Files.newDirectoryStream(directory, "*.yaml"))
+        {
+            for (Path existingFile : existingFiles)
+            {
+                Files.delete(existingFile);
+            }
+        }
+
+        List<long[]> files = new ArrayList<>();
+        Random random = new Random(this.seed);
+        long totalBytes = 0;
+
+        // choose every size up front, so the corpus does not depend on the order files are written in
+        for (int collection = 0; collection < this.collections; collection++)
+        {
+            for (int version = 1; version <= this.versions; version++)
+            {
+                long size = Math.round(Math.exp(Math.log(this.minBytes)
+                        + random.nextDouble() * (Math.log(this.maxBytes) - Math.log(this.minBytes))));
+
+                files.add(new long[]{collection, version, size});
+                totalBytes += size;
+            }
+        }
+
+        System.out.println("Generating " + files.size() + " file(s), about " + totalBytes / (1024 * 1024)
+                + " MB, in " + directory);
+
+        OpenApiSpecGenerator specGenerator = new OpenApiSpecGenerator(this.securityDensity);
+
+        files.parallelStream().forEach(file -> {
+            try
+            {
+                specGenerator.write(directory, "Collection" + file[0] + "Service", (int) file[1], file[2]);
+            }
+            catch (Exception ex)
+            {
+                throw new IllegalStateException("Could not generate corpus file", ex);
+            }
+        });
+
+        try (BufferedWriter writer = Files.newBufferedWriter(pathToParametersFile))
+        {
+            parameters.store(writer, "Synthetic OpenAPI corpus parameters");
+        }
+    }
+
+    /**
+     * Method to get the parameters identifying this corpus.
+     */
+    private Properties getParameters()
+    {
+        Properties parameters = new Properties();
+
+        parameters.setProperty("collections", String.valueOf(this.collections));
+        parameters.setProperty("versions", String.valueOf(this.versions));
+        parameters.setProperty("minBytes", String.valueOf(this.minBytes));
+        parameters.setProperty("maxBytes", String.valueOf(this.maxBytes));
+        parameters.setProperty("securityDensity", String.valueOf(this.securityDensity));
+        parameters.setProperty("seed", String.valueOf(this.seed));
+
+        return parameters;
+    }
+
+    /**
+     * Method to parse a size in bytes with an optional KB, MB or GB suffix.
+     *
+     * @param size String containing size
+     * @return size in bytes
+     */
+    public static long parseSize(String size)
+    {
+        String value = size.trim().toUpperCase(Locale.ROOT);
+        long multiplier = 1;
+
+        if (value.endsWith("KB"))
+        {
+            multiplier = 1024;
+        }
+        else if (value.endsWith("MB"))
+        {
+            multiplier = 1024 * 1024;
+        }
+        else if (value.endsWith("GB"))
+        {
+            multiplier = 1024 * 1024 * 1024;
+        }
+
+        if (multiplier > 1)
+        {
+            value = value.substring(0, value.length() - 2).trim();
+        }
+
+        return Math.round(Double.parseDouble(value) * multiplier);
+    }
+}
@@ -0,0 +1,175 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for each step of line-based editing in isolation. Every invocation of an edit step starts from a fresh
+ * copy of the original lines, so that steps which remove or add lines always have the same work to do, and every write
+ * starts by deleting the previous output, so that it publishes a new file rather than finding identical content
+ * already in place. Both happen within the measured time, as per-invocation setup would distort timings this short -
+ * subtract the copyLines and deleteOutput baselines to isolate each step. The deleteOutput baseline alone re-creates
+ * the output before each invocation, so that it always has a file to delete.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class EditStepBenchmark
+{
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    public SpecFixture fixture;
+
+    private Path workDirectory;
+    private Path pathToOutputFile;
+    private Object file;
+    private List<String> originalLines;
+    private List<String> amendedLines;
+    private byte[] outputContent;
+
+    @Setup(Level.Trial)
+    public void setUp()
+            throws Throwable
+    {
+        this.workDirectory = Files.createTempDirectory("edit-step-benchmark");
+
+        Path pathToInputFile = this.fixture.write(this.workDirectory, "CheckoutService", 70);
+        Path outputDirectory = Files.createDirectory(this.workDirectory.resolve("out"));
+
+        this.pathToOutputFile = outputDirectory.resolve(pathToInputFile.getFileName());
+        this.file = Editor.newYamlFile(pathToInputFile, outputDirectory, "LINES");
+
+        Editor.read(this.file);
+        this.originalLines = new ArrayList<>(Editor.getLines(this.file));
+
+        Editor.amend(this.file);
+        this.amendedLines = new ArrayList<>(Editor.getLines(this.file));
+
+        Editor.WRITE_CHANGES_TO_FILE.invoke(this.file);
+        this.outputContent = Files.readAllBytes(this.pathToOutputFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+            throws Exception
+    {
+        Fixtures.deleteDirectory(this.workDirectory);
+    }
+
+    /**
+     * Method to start an edit step from a fresh copy of the original lines.
+     */
+    private void resetLines()
+            throws Throwable
+    {
+        Editor.setLines(this.file, new ArrayList<>(this.originalLines));
+    }
+
+    @Benchmark
+    public List<String> copyLines()
+            throws Throwable
+    {
+        resetLines();
+        return Editor.getLines(this.file);
+    }
+
+    @Benchmark
+    public List<String> addVariableToBaseUrl()
+            throws Throwable
+    {
+        resetLines();
+        Editor.ADD_VARIABLE_TO_BASE_URL.invoke(this.file);
+        return Editor.getLines(this.file);
+    }
+
+    @Benchmark
+    public List<String> removeRequestLevelAuthentication()
+            throws Throwable
+    {
+        resetLines();
+        Editor.REMOVE_REQUEST_LEVEL_AUTHENTICATION.invoke(this.file);
+        return Editor.getLines(this.file);
+    }
+
+    @Benchmark
+    public List<String> setDefaultAuthenticationToApiKey()
+            throws Throwable
+    {
+        resetLines();
+        Editor.SET_DEFAULT_AUTHENTICATION_TO_API_KEY.invoke(this.file);
+        return Editor.getLines(this.file);
+    }
+
+    @Benchmark
+    public List<String> updateCollectionTitleWithVersion()
+            throws Throwable
+    {
+        resetLines();
+        Editor.UPDATE_COLLECTION_TITLE_WITH_VERSION.invoke(this.file);
+        return Editor.getLines(this.file);
+    }
+
+    /**
+     * Writing state for the writeChangesToFile benchmark. Writing leaves the lines untouched, so the fully amended
+     * lines are only put in place once per iteration.
+     */
+    @State(Scope.Thread)
+    public static class WriteState
+    {
+        @Setup(Level.Iteration)
+        public void prepare(EditStepBenchmark benchmark)
+                throws Throwable
+        {
+            Editor.setLines(benchmark.file, new ArrayList<>(benchmark.amendedLines));
+        }
+    }
+
+    /**
+     * Deleting state for the deleteOutput baseline. The output written by writeChangesToFile is re-created before each
+     * invocation, outside the measured time, so that every delete removes a file just as writeChangesToFile does.
+     */
+    @State(Scope.Thread)
+    public static class DeleteState
+    {
+        @Setup(Level.Invocation)
+        public void prepare(EditStepBenchmark benchmark)
+                throws Exception
+        {
+            Files.write(benchmark.pathToOutputFile, benchmark.outputContent);
+        }
+    }
+
+    @Benchmark
+    public boolean deleteOutput(DeleteState deleteState)
+            throws Exception
+    {
+        return Files.deleteIfExists(this.pathToOutputFile);
+    }
+
+    @Benchmark
+    public void writeChangesToFile(WriteState writeState)
+            throws Throwable
+    {
+        Files.deleteIfExists(this.pathToOutputFile);
+        Editor.WRITE_CHANGES_TO_FILE.invoke(this.file);
+    }
+}
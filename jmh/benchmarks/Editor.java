@@ -0,0 +1,205 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.AccessibleObject;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class gives benchmarks access to the editor classes. Those classes sit in the default package, which code in a
+ * named package cannot reference - and JMH does not allow benchmarks in the default package - so they are looked up
+ * by name and called through method handles. Private edit steps are opened up so they can be measured in isolation.
+ */
+public final class Editor
+{
+    // region STATIC VARIABLES
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final Class<?> FILE_CLASS = load("OpenApiYamlFile");
+    private static final Class<?> EDIT_ENGINE_CLASS = load("OpenApiYamlFile$EditEngine");
+    private static final Class<?> SERVICE_CLASS = load("OpenApiYamlEditorService");
+
+    // OpenApiYamlFile constructor and methods
+    private static final MethodHandle NEW_FILE = constructor(FILE_CLASS, Path.class, Path.class, EDIT_ENGINE_CLASS);
+    private static final MethodHandle READ = method(FILE_CLASS, "read");
+    private static final MethodHandle AMEND = method(FILE_CLASS, "amend");
+    private static final MethodHandle AMEND_AND_SAVE = method(FILE_CLASS, "amendAndSave");
+    private static final MethodHandle GET_LINES = getter(FILE_CLASS, "lines");
+    private static final MethodHandle SET_LINES = setter(FILE_CLASS, "lines");
+
+    // OpenApiYamlFile edit steps
+    public static final MethodHandle ADD_VARIABLE_TO_BASE_URL = method(FILE_CLASS, "addVariableToBaseUrl");
+    public static final MethodHandle REMOVE_REQUEST_LEVEL_AUTHENTICATION = method(FILE_CLASS,
+            "removeRequestLevelAuthentication");
+    public static final MethodHandle SET_DEFAULT_AUTHENTICATION_TO_API_KEY = method(FILE_CLASS,
+            "setDefaultAuthenticationToApiKey");
+    public static final MethodHandle UPDATE_COLLECTION_TITLE_WITH_VERSION = method(FILE_CLASS,
+            "updateCollectionTitleWithVersion");
+    public static final MethodHandle WRITE_CHANGES_TO_FILE = method(FILE_CLASS, "writeChangesToFile");
+
+    // OpenApiYamlEditorService constructor and methods
+    private static final MethodHandle NEW_SERVICE = constructor(SERVICE_CLASS, String.class, String.class,
+            boolean.class);
+    private static final MethodHandle RUN = method(SERVICE_CLASS, "run");
+    private static final MethodHandle COPY_LATEST_FILES = method(SERVICE_CLASS, "copyLatestFiles");
+    private static final MethodHandle GET_SAVED_LATEST_PATHS = getter(SERVICE_CLASS, "savedLatestYamlFilePaths");
+
+    // endregion
+
+    private Editor()
+    {
+    }
+
+    /**
+     * Method to create an OpenApiYamlFile.
+     *
+     * @param pathToInputFile       Path to input file
+     * @param pathToOutputDirectory Path to directory to save output file to
+     * @param editEngine            String containing name of EditEngine constant
+     * @return OpenApiYamlFile
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Object newYamlFile(Path pathToInputFile, Path pathToOutputDirectory, String editEngine)
+            throws Throwable
+    {
+        return NEW_FILE.invoke(pathToInputFile, pathToOutputDirectory,
+                Enum.valueOf((Class<? extends Enum>) EDIT_ENGINE_CLASS, editEngine));
+    }
+
+    public static void read(Object file)
+            throws Throwable
+    {
+        READ.invoke(file);
+    }
+
+    public static void amend(Object file)
+            throws Throwable
+    {
+        AMEND.invoke(file);
+    }
+
+    public static void amendAndSave(Object file)
+            throws Throwable
+    {
+        AMEND_AND_SAVE.invoke(file);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<String> getLines(Object file)
+            throws Throwable
+    {
+        return (List<String>) GET_LINES.invoke(file);
+    }
+
+    public static void setLines(Object file, List<String> lines)
+            throws Throwable
+    {
+        SET_LINES.invoke(file, lines);
+    }
+
+    /**
+     * Method to create an OpenApiYamlEditorService.
+     *
+     * @param pathToInputDirectory  Path to input directory
+     * @param pathToOutputDirectory Path to output directory
+     * @param copyLatestVersions    boolean to control creation of the latest versions subdirectory
+     * @return OpenApiYamlEditorService
+     */
+    public static Object newService(Path pathToInputDirectory, Path pathToOutputDirectory, boolean copyLatestVersions)
+            throws Throwable
+    {
+        return NEW_SERVICE.invoke(pathToInputDirectory.toString(), pathToOutputDirectory.toString(),
+                copyLatestVersions);
+    }
+
+    public static void run(Object service)
+            throws Throwable
+    {
+        RUN.invoke(service);
+    }
+
+    public static void copyLatestFiles(Object service)
+            throws Throwable
+    {
+        COPY_LATEST_FILES.invoke(service);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Set<Path> getSavedLatestPaths(Object service)
+            throws Throwable
+    {
+        return (Set<Path>) GET_SAVED_LATEST_PATHS.invoke(service);
+    }
+
+    /**
+     * Method to load a class from the default package.
+     */
+    private static Class<?> load(String name)
+    {
+        try
+        {
+            return Class.forName(name);
+        }
+        catch (ClassNotFoundException ex)
+        {
+            throw new IllegalStateException("Editor class not found on the benchmark classpath: " + name, ex);
+        }
+    }
+
+    private static MethodHandle constructor(Class<?> type, Class<?>... parameterTypes)
+    {
+        try
+        {
+            return LOOKUP.unreflectConstructor(open(type.getDeclaredConstructor(parameterTypes)));
+        }
+        catch (ReflectiveOperationException ex)
+        {
+            throw new IllegalStateException("Constructor not found on " + type.getName(), ex);
+        }
+    }
+
+    private static MethodHandle method(Class<?> type, String name)
+    {
+        try
+        {
+            return LOOKUP.unreflect(open(type.getDeclaredMethod(name)));
+        }
+        catch (ReflectiveOperationException ex)
+        {
+            throw new IllegalStateException("Method not found: " + type.getName() + "." + name, ex);
+        }
+    }
+
+    private static MethodHandle getter(Class<?> type, String name)
+    {
+        try
+        {
+            return LOOKUP.unreflectGetter(open(type.getDeclaredField(name)));
+        }
+        catch (ReflectiveOperationException ex)
+        {
+            throw new IllegalStateException("Field not found: " + type.getName() + "." + name, ex);
+        }
+    }
+
+    private static MethodHandle setter(Class<?> type, String name)
+    {
+        try
+        {
+            return LOOKUP.unreflectSetter(open(type.getDeclaredField(name)));
+        }
+        catch (ReflectiveOperationException ex)
+        {
+            throw new IllegalStateException("Field not found: " + type.getName() + "." + name, ex);
+        }
+    }
+
+    private static <T extends AccessibleObject> T open(T member)
+    {
+        member.setAccessible(true);
+        return member;
+    }
+}
@@ -0,0 +1,146 @@
+package benchmarks;
+
+import java.io.BufferedWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * This class measures complete runs of the editor over a corpus, going through EditorApp exactly as a user would.
+ * Each run starts with an empty output directory, and reports wall time, throughput in MB/s and files/s, and the peak
+ * resident set size of the JVM. Peak RSS is read from /proc and is therefore only available on Linux; it is reset
+ * before each run where the kernel allows, and otherwise covers every run so far.
+ *
+ * Usage: EndToEndBenchmark corpusDirectory workDirectory runs [setting=value ...]
+ * Settings are added to the config.properties written for each run, e.g. executionMode=parallel editEngine=bytes.
+ */
+public class EndToEndBenchmark
+{
+    public static void main(String[] args)
+            throws Throwable
+    {
+        if (args.length < 3)
+        {
+            throw new IllegalArgumentException(
+                    "Usage: EndToEndBenchmark corpusDirectory workDirectory runs [setting=value ...]");
+        }
+
+        Path corpusDirectory = Paths.get(args[0]).toAbsolutePath();
+        Path workDirectory = Paths.get(args[1]).toAbsolutePath();
+        Path outputDirectory = workDirectory.resolve("out");
+        int runs = Integer.parseInt(args[2]);
+        List<String> settings = List.of(args).subList(3, args.length);
+
+        // measure the corpus once - every run processes the same files
+        long fileCount = 0;
+        long totalBytes = 0;
+
+        try (DirectoryStream<Path> corpusFiles = Files.newDirectoryStream(corpusDirectory, "*.yaml"))
+        {
+            for (Path corpusFile : corpusFiles)
+            {
+                fileCount++;
+                totalBytes += Files.size(corpusFile);
+            }
+        }
+
+        System.out.printf(Locale.ROOT, "Corpus: %d file(s), %.1f MB; settings: %s%n", fileCount,
+                totalBytes / 1e6, settings.isEmpty() ? "defaults" : String.join(" ", settings));
+
+        // EditorApp falls back to config.properties in the working directory
+        Files.createDirectories(workDirectory);
+        Path pathToConfigFile = Paths.get("config.properties").toAbsolutePath();
+
+        try (BufferedWriter writer = Files.newBufferedWriter(pathToConfigFile))
+        {
+            writer.write("pathToInputDirectory=" + corpusDirectory + System.lineSeparator());
+            writer.write("pathToOutputDirectory=" + outputDirectory + System.lineSeparator());
+            writer.write("copyLatestVersions=true" + System.lineSeparator());
+
+            for (String setting : settings)
+            {
+                writer.write(setting + System.lineSeparator());
+            }
+        }
+
+        Method editorMain = Class.forName("EditorApp").getMethod("main", String[].class);
+        boolean peakResetSupported = true;
+
+        for (int run = 1; run <= runs; run++)
+        {
+            Fixtures.deleteDirectory(outputDirectory);
+            Files.createDirectories(outputDirectory);
+
+            System.gc();
+            peakResetSupported &= resetPeakResidentSetSize();
+
+            long startNanos = System.nanoTime();
+
+            try
+            {
+                editorMain.invoke(null, (Object) new String[0]);
+            }
+            catch (InvocationTargetException ex)
+            {
+                throw ex.getCause();
+            }
+
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            long peakBytes = readPeakResidentSetSize();
+
+            System.out.printf(Locale.ROOT, "Run %d: %.3f s, %.1f MB/s, %.1f files/s, peak RSS %s%s%n", run, seconds,
+                    totalBytes / 1e6 / seconds, fileCount / seconds,
+                    peakBytes < 0 ? "unavailable" : String.format(Locale.ROOT, "%.1f MB", peakBytes / 1e6),
+                    peakBytes >= 0 && !peakResetSupported ? " (since JVM start)" : "");
+        }
+    }
+
+    /**
+     * Method to reset the peak resident set size recorded by the kernel for this process.
+     *
+     * @return true if the peak was reset
+     */
+    private static boolean resetPeakResidentSetSize()
+    {
+        try
+        {
+            Files.writeString(Paths.get("/proc/self/clear_refs"), "5");
+            return true;
+        }
+        catch (Exception ex)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Method to read the peak resident set size of this process from /proc.
+     *
+     * @return peak resident set size in bytes, or -1 if unavailable
+     */
+    private static long readPeakResidentSetSize()
+    {
+        try
+        {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status")))
+            {
+                if (line.startsWith("VmHWM:"))
+                {
+                    // reported in kB
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            }
+        }
+        catch (Exception ex)
+        {
+            // not Linux - fall through
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,36 @@
+package benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * This class manages the temporary directories benchmarks write fixtures and outputs to.
+ */
+final class Fixtures
+{
+    private Fixtures()
+    {
+    }
+
+    /**
+     * Method to delete a directory and everything beneath it.
+     */
+    static void deleteDirectory(Path directory)
+            throws Exception
+    {
+        if (directory == null || !Files.exists(directory))
+        {
+            return;
+        }
+
+        try (Stream<Path> paths = Files.walk(directory))
+        {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator)
+            {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package benchmarks;
+
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This class writes synthetic OpenAPI YAML documents shaped like the specs Adyen publishes: a servers block, an info
+ * block holding the title and version, a run of operations - a controllable fraction of which carry request-level
+ * security blocks - and a components block. Documents are padded with operations until they reach a target size, and
+ * the same arguments always produce the same document.
+ */
+public class OpenApiSpecGenerator
+{
+    // region INSTANCE VARIABLES
+
+    // fraction of operations carrying a request-level security block, between 0 and 1
+    private final double securityDensity;
+
+    // endregion
+
+    /**
+     * Public constructor.
+     *
+     * @param securityDensity fraction of operations carrying a request-level security block, between 0 and 1
+     */
+    public OpenApiSpecGenerator(double securityDensity)
+    {
+        this.securityDensity = securityDensity;
+    }
+
+    /**
+     * Method to write a document to a file named after its collection and version, following the
+     * "{collection}-v{version}.yaml" convention.
+     *
+     * @param directory   Path to directory to write to
+     * @param collection  String containing collection name, e.g. CheckoutService
+     * @param version     version number of the collection
+     * @param targetBytes approximate size of the document in bytes
+     * @return Path to file written
+     * @throws Exception
+     */
+    public Path write(Path directory, String collection, int version, long targetBytes)
+            throws Exception
+    {
+        Path pathToFile = directory.resolve(collection + "-v" + version + ".yaml");
+
+        try (Writer writer = Files.newBufferedWriter(pathToFile, StandardCharsets.UTF_8))
+        {
+            write(writer, collection, version, targetBytes);
+        }
+
+        return pathToFile;
+    }
+
+    /**
+     * Method to write a document.
+     *
+     * @param writer      Writer receiving the document (not closed)
+     * @param collection  String containing collection name, e.g. CheckoutService
+     * @param version     version number of the collection
+     * @param targetBytes approximate size of the document in bytes
+     * @throws Exception
+     */
+    public void write(Writer writer, String collection, int version, long targetBytes)
+            throws Exception
+    {
+        StringBuilder block = new StringBuilder(4096);
+
+        block.append("openapi: 3.1.0\n")
+                .append("servers:\n")
+                .append("- url: https://").append(collection.toLowerCase()).append("-test.adyen.com/")
+                .append(collection).append("/v").append(version).append('\n')
+                .append("info:\n")
+                .append("  version: '").append(version).append("'\n")
+                .append("  x-publicVersion: true\n")
+                .append("  title: Adyen ").append(collection.replaceAll("([a-z])([A-Z])", "$1 $2")).append(" API\n")
+                .append("  description: Synthetic ").append(collection).append(" specification for benchmarking.\n")
+                .append("  contact:\n")
+                .append("    name: Adyen Developer Experience team\n")
+                .append("    url: https://github.com/Adyen/adyen-openapi\n")
+                .append("paths:\n");
+
+        long written = flush(block, writer);
+
+        // reserve room for the components block written at the end
+        long pathsBytes = Math.max(0, targetBytes - written - 600);
+        long securedOperations = 0;
+
+        for (int operation = 0; written < pathsBytes || operation == 0; operation++)
+        {
+            appendOperation(block, operation);
+
+            // spread secured operations evenly through the document at the requested density
+            if (Math.floor((operation + 1) * this.securityDensity) > securedOperations)
+            {
+                block.append("      security:\n")
+                        .append("      - BasicAuth: []\n")
+                        .append("      - ApiKeyAuth: []\n");
+                securedOperations++;
+            }
+
+            appendResponses(block, operation);
+            written += flush(block, writer);
+        }
+
+        block.append("components:\n")
+                .append("  schemas:\n")
+                .append("    Amount:\n")
+                .append("      additionalProperties: false\n")
+                .append("      properties:\n")
+                .append("        currency:\n")
+                .append("          description: The three-character ISO currency code.\n")
+                .append("          type: string\n")
+                .append("        value:\n")
+                .append("          description: The amount of the transaction, in minor units.\n")
+                .append("          format: int64\n")
+                .append("          type: integer\n")
+                .append("  securitySchemes:\n")
+                .append("    ApiKeyAuth:\n")
+                .append("      in: header\n")
+                .append("      name: X-API-Key\n")
+                .append("      type: apiKey\n")
+                .append("    BasicAuth:\n")
+                .append("      scheme: basic\n")
+                .append("      type: http\n");
+
+        flush(block, writer);
+    }
+
+    /**
+     * Method to append the start of an operation, up to where a request-level security block may follow.
+     */
+    private static void appendOperation(StringBuilder block, int operation)
+    {
+        block.append("  /resource").append(operation).append(":\n")
+                .append("    post:\n")
+                .append("      tags:\n")
+                .append("      - Resource").append(operation % 17).append('\n')
+                .append("      summary: Create resource ").append(operation).append('\n')
+                .append("      description: Creates a resource of type ").append(operation)
+                .append(" and returns its identifier. Requests are validated before being accepted.\n")
+                .append("      operationId: post-resource").append(operation).append('\n')
+                .append("      x-sortIndex: ").append(operation).append('\n')
+                .append("      x-methodName: createResource").append(operation).append('\n');
+    }
+
+    /**
+     * Method to append the request body and responses ending an operation.
+     */
+    private static void appendResponses(StringBuilder block, int operation)
+    {
+        block.append("      requestBody:\n")
+                .append("        content:\n")
+                .append("          application/json:\n")
+                .append("            schema:\n")
+                .append("              $ref: '#/components/schemas/Amount'\n")
+                .append("      responses:\n")
+                .append("        '200':\n")
+                .append("          content:\n")
+                .append("            application/json:\n")
+                .append("              schema:\n")
+                .append("                $ref: '#/components/schemas/Amount'\n")
+                .append("          description: OK - the request has succeeded for resource ").append(operation)
+                .append(".\n")
+                .append("        '400':\n")
+                .append("          description: Bad Request - a problem reading or understanding the request.\n")
+                .append("        '401':\n")
+                .append("          description: Unauthorized - authentication required.\n");
+    }
+
+    /**
+     * Method to write and clear a block of text, returning its length (documents are ASCII, so one byte per char).
+     */
+    private static long flush(StringBuilder block, Writer writer)
+            throws Exception
+    {
+        int length = block.length();
+
+        writer.write(block.toString());
+        block.setLength(0);
+
+        return length;
+    }
+}
@@ -0,0 +1,42 @@
+package benchmarks;
+
+import java.nio.file.Path;
+
+/**
+ * Sizes of synthetic spec used as benchmark fixtures, spanning a small collection, a typical published spec and an
+ * outsized one. Half of the operations in each carry a request-level security block.
+ */
+public enum SpecFixture
+{
+    SMALL(10 * 1024),
+
+    MEDIUM(1024 * 1024),
+
+    HUGE(64 * 1024 * 1024);
+
+    // fraction of operations carrying a request-level security block
+    private static final double SECURITY_DENSITY = 0.5;
+
+    // approximate size of the fixture in bytes
+    private final long targetBytes;
+
+    SpecFixture(long targetBytes)
+    {
+        this.targetBytes = targetBytes;
+    }
+
+    /**
+     * Method to write the fixture as a version of a collection.
+     *
+     * @param directory  Path to directory to write to
+     * @param collection String containing collection name
+     * @param version    version number of the collection
+     * @return Path to file written
+     * @throws Exception
+     */
+    public Path write(Path directory, String collection, int version)
+            throws Exception
+    {
+        return new OpenApiSpecGenerator(SECURITY_DENSITY).write(directory, collection, version, this.targetBytes);
+    }
+}
@@ -1,8 +1,22 @@
+import com.sun.net.httpserver.HttpServer;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
 import java.io.BufferedInputStream;
 import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Properties;
+import java.util.Scanner;
 
 /**
  * This class contains the main method to initiate execution of the application. Includes basic validation checks
@@ -10,14 +24,94 @@ import java.util.Properties;
  */
 public class EditorApp
 {
+    // region STATIC VARIABLES
+
+    // process every input file, then keep re-processing files as they change
+    private static final String WATCH_MODE = "--watch";
+
+    // transform documents posted over HTTP
+    private static final String SERVE_MODE = "--serve";
+
+    // transform a single document read from stdin, writing it to stdout
+    private static final String FILTER_MODE = "--filter";
+
+    // process input files listed on stdin, separated by NUL characters (e.g. from find -print0)
+    private static final String PATHS_MODE = "--paths0";
+
+    private static final List<String> SUPPORTED_MODES = Arrays.asList(WATCH_MODE, SERVE_MODE, FILTER_MODE,
+            PATHS_MODE);
+
+    // record a flight recording of the run, optionally followed by =<file> naming the recording file
+    private static final String RECORD_OPTION = "--jfr";
+
+    private static final String DEFAULT_RECORDING_FILE = "AdyenOpenApiEditor.jfr";
+
+    // stateless transformer used in filter mode
+    private static final OpenApiYamlStreamTransformer STREAM_TRANSFORMER = new OpenApiYamlStreamTransformer();
+
+    // endregion
+
     public static void main(String[] args)
             throws Exception
     {
 
+        // optional command line flag selecting a mode - default to a single run over the input directory
+        String mode = null;
+
+        // optional command line flag requesting a flight recording - default to no recording
+        String pathToRecording = null;
+
+        for (String arg : args)
+        {
+            if (arg.equals(RECORD_OPTION) || arg.startsWith(RECORD_OPTION + "="))
+            {
+                pathToRecording = arg.equals(RECORD_OPTION)
+                        ? DEFAULT_RECORDING_FILE
+                        : arg.substring(RECORD_OPTION.length() + 1);
+                continue;
+            }
+
+            if (!SUPPORTED_MODES.contains(arg))
+            {
+                throw new Exception("Unrecognised argument: " + arg + " - supported arguments are "
+                        + String.join(", ", SUPPORTED_MODES) + ", " + RECORD_OPTION + "[=file]");
+            }
+
+            if (mode != null && !mode.equals(arg))
+            {
+                throw new Exception("Arguments " + mode + " and " + arg + " cannot be used together");
+            }
+
+            mode = arg;
+        }
+
+        // stdout carries the transformed document in filter mode, so status messages are sent to stderr instead
+        PrintStream documentOut = System.out;
+
+        if (FILTER_MODE.equals(mode))
+        {
+            System.setOut(System.err);
+        }
+
         System.out.println("AdyenOpenApiEditor starting");
 
+        Recording recording = pathToRecording == null ? null : startRecording(Paths.get(pathToRecording));
+
+        // server publishing metrics while the editor service runs, if requested
+        HttpServer metricsServer = null;
+
         try
         {
+            // transform a single document from stdin to stdout, without needing a properties file
+            if (FILTER_MODE.equals(mode))
+            {
+                System.out.println("AdyenOpenApiEditor started successfully");
+
+                transformStandardStreams(documentOut);
+                System.out.println("AdyenOpenApiEditor finished");
+                return;
+            }
+
             // load config variables from config.properties file
             Properties props = new Properties();
 
@@ -47,25 +141,268 @@ public class EditorApp
                 throw ex;
             }
 
+            // serve edits over HTTP rather than processing directories if requested
+            if (SERVE_MODE.equals(mode))
+            {
+                // listen on the loopback interface only unless another address is given
+                String serverBindAddress = props.getProperty("serverBindAddress", "");
+                String serverPort = props.getProperty("serverPort", String.valueOf(OpenApiYamlHttpServer.DEFAULT_PORT));
+                String serverMaxRequestBytes = props.getProperty("serverMaxRequestBytes",
+                        String.valueOf(OpenApiYamlHttpServer.DEFAULT_MAX_REQUEST_BYTES));
+                String serverMaxConcurrentRequests = props.getProperty("serverMaxConcurrentRequests",
+                        String.valueOf(OpenApiYamlHttpServer.DEFAULT_MAX_CONCURRENT_REQUESTS));
+
+                OpenApiYamlHttpServer server = new OpenApiYamlHttpServer(serverBindAddress.isBlank()
+                        ? InetAddress.getLoopbackAddress() : InetAddress.getByName(serverBindAddress.trim()),
+                        Integer.parseInt(serverPort.trim()), Integer.parseInt(serverMaxRequestBytes.trim()),
+                        Integer.parseInt(serverMaxConcurrentRequests.trim()));
+
+                System.out.println("AdyenOpenApiEditor started successfully");
+
+                server.serve();
+                return;
+            }
+
             String pathToInputDirectory = props.getProperty("pathToInputDirectory");
             String pathToOutputDirectory = props.getProperty("pathToOutputDirectory");
             boolean copyLatestVersions = Boolean.valueOf(props.getProperty("copyLatestVersions"));
 
+            // optional execution settings - default to processing files one at a time
+            String executionMode = props.getProperty("executionMode", "sequential");
+            String workerCount = props.getProperty("workerCount",
+                    String.valueOf(Runtime.getRuntime().availableProcessors()));
+            String maxOpenFiles = props.getProperty("maxOpenFiles",
+                    String.valueOf(OpenApiYamlEditorService.DEFAULT_MAX_OPEN_FILES));
+            String pipelineQueueCapacity = props.getProperty("pipelineQueueCapacity",
+                    String.valueOf(OpenApiYamlEditorService.DEFAULT_PIPELINE_QUEUE_CAPACITY));
+            String editEngine = props.getProperty("editEngine", "lines");
+            String memoryMapThreshold = props.getProperty("memoryMapThreshold",
+                    String.valueOf(OpenApiYamlFile.DEFAULT_MEMORY_MAP_THRESHOLD));
+            boolean incrementalRuns = Boolean.valueOf(props.getProperty("incrementalRuns"));
+            String fsyncPolicy = props.getProperty("fsyncPolicy", "none");
+            String latestCopyMode = props.getProperty("latestCopyMode", "copy");
+
+            // optional discovery settings - default to .yaml files directly within the input directory
+            boolean recursiveDiscovery = Boolean.valueOf(props.getProperty("recursiveDiscovery"));
+            String includePatterns = props.getProperty("includePatterns",
+                    OpenApiYamlFileFinder.DEFAULT_INCLUDE_PATTERN);
+            String excludePatterns = props.getProperty("excludePatterns", "");
+            String watchDebounceMillis = props.getProperty("watchDebounceMillis",
+                    String.valueOf(OpenApiYamlDirectoryWatcher.DEFAULT_DEBOUNCE_MILLIS));
+
+            // optional reporting settings - default to listing the slowest files without saving a report
+            String reportSlowestFiles = props.getProperty("reportSlowestFiles",
+                    String.valueOf(OpenApiYamlRunStatistics.DEFAULT_SLOWEST_FILE_COUNT));
+            boolean writeRunReport = Boolean.valueOf(props.getProperty("writeRunReport"));
+
+            // optional metrics settings - default to neither saving nor serving metrics
+            String metricsFile = props.getProperty("metricsFile", "");
+            String metricsPort = props.getProperty("metricsPort", "");
+
             // create editor service
             OpenApiYamlEditorService editorService = new OpenApiYamlEditorService(pathToInputDirectory,
                     pathToOutputDirectory, copyLatestVersions);
 
+            // apply execution settings
+            editorService.setExecutionMode(
+                    OpenApiYamlEditorService.ExecutionMode.valueOf(executionMode.trim().toUpperCase()));
+            editorService.setWorkerCount(Integer.parseInt(workerCount.trim()));
+            editorService.setMaxOpenFiles(Integer.parseInt(maxOpenFiles.trim()));
+            editorService.setPipelineQueueCapacity(Integer.parseInt(pipelineQueueCapacity.trim()));
+            editorService.setEditEngine(OpenApiYamlFile.EditEngine.valueOf(editEngine.trim().toUpperCase()));
+            editorService.setMemoryMapThreshold(Long.parseLong(memoryMapThreshold.trim()));
+            editorService.setIncrementalRuns(incrementalRuns);
+            editorService.setFsyncPolicy(OpenApiYamlOutputSync.FsyncPolicy.valueOf(fsyncPolicy.trim().toUpperCase()));
+            editorService.setLatestCopyMode(
+                    OpenApiYamlOutputFile.CopyMode.valueOf(latestCopyMode.trim().toUpperCase()));
+            editorService.setRecursiveDiscovery(recursiveDiscovery);
+            editorService.setDiscoveryPatterns(splitList(includePatterns), splitList(excludePatterns));
+
+            // apply reporting settings
+            editorService.setReportedSlowestFileCount(Integer.parseInt(reportSlowestFiles.trim()));
+            editorService.setWriteRunReport(writeRunReport);
+
+            // apply metrics settings
+            if (!metricsFile.trim().isEmpty())
+            {
+                editorService.setMetricsFile(Paths.get(metricsFile.trim()));
+            }
+
+            if (!metricsPort.trim().isEmpty())
+            {
+                metricsServer = editorService.getMetrics().startServer(Integer.parseInt(metricsPort.trim()));
+            }
+
             System.out.println("AdyenOpenApiEditor started successfully");
 
-            // run editor service
-            editorService.run();
+            // run editor service, keep re-running it on changed files, or run it on files listed on stdin
+            if (WATCH_MODE.equals(mode))
+            {
+                editorService.watch(Long.parseLong(watchDebounceMillis.trim()));
+            }
+            else if (PATHS_MODE.equals(mode))
+            {
+                editorService.runFiles(readStandardInputPaths());
+            }
+            else
+            {
+                editorService.run();
+            }
         }
         catch (Exception ex)
         {
             ex.printStackTrace();
             throw ex;
         }
+        finally
+        {
+            if (metricsServer != null)
+            {
+                metricsServer.stop(0);
+            }
+
+            if (recording != null)
+            {
+                stopRecording(recording);
+            }
+        }
 
         System.out.println("AdyenOpenApiEditor finished");
     }
+
+    /**
+     * Method to start a flight recording covering the rest of the run, using the profiling settings shipped with the
+     * JDK. Open the recording with JDK Mission Control to see the events emitted for each file and edit step alongside
+     * garbage collection and I/O activity.
+     *
+     * @param pathToRecording Path to file to save the recording to
+     * @return Recording in progress
+     */
+    private static Recording startRecording(Path pathToRecording)
+            throws Exception
+    {
+        Recording recording = new Recording(Configuration.getConfiguration("profile"));
+        recording.setName("AdyenOpenApiEditor");
+        recording.setDestination(pathToRecording);
+
+        // save the recording if the JVM is stopped first, as happens in watch and serve modes
+        recording.setDumpOnExit(true);
+
+        recording.start();
+
+        System.out.println("Recording flight data to " + pathToRecording);
+
+        return recording;
+    }
+
+    /**
+     * Method to stop a flight recording and save it to its destination.
+     *
+     * @param recording Recording in progress
+     */
+    private static void stopRecording(Recording recording)
+    {
+        Path pathToRecording = recording.getDestination();
+
+        recording.stop();
+        recording.close();
+
+        System.out.println("Flight recording saved to " + pathToRecording);
+    }
+
+    /**
+     * Method to transform a single document read from stdin, writing the result to stdout. Nothing is read from or
+     * written to the file system.
+     *
+     * @param documentOut PrintStream for stdout, receiving the transformed document
+     * @throws Exception if the document cannot be transformed or written to stdout
+     */
+    private static void transformStandardStreams(PrintStream documentOut)
+            throws Exception
+    {
+        OpenApiYamlTransformResult result = transformStreams(System.in, documentOut);
+
+        System.out.println("Transformed " + result.getTitle() + " version " + result.getVersion());
+    }
+
+    /**
+     * Method to transform a single document read from a stream, writing the result to a print stream.
+     *
+     * @param in          InputStream supplying the original document
+     * @param documentOut PrintStream receiving the transformed document
+     * @return OpenApiYamlTransformResult describing the document and the edits applied
+     * @throws Exception if the document cannot be transformed or written
+     */
+    static OpenApiYamlTransformResult transformStreams(InputStream in, PrintStream documentOut)
+            throws Exception
+    {
+        OpenApiYamlTransformResult result = STREAM_TRANSFORMER.transform(in, documentOut);
+
+        // PrintStream never throws on failure, e.g. when stdout is a closed pipe or full disk, so it must be asked
+        if (documentOut.checkError())
+        {
+            throw new Exception("Could not write transformed document to stdout");
+        }
+
+        return result;
+    }
+
+    /**
+     * Method to read a list of paths from stdin, separated by NUL characters. Paths are read as they are requested, so
+     * processing can start before the list is complete.
+     *
+     * @return Iterator over paths read from stdin
+     */
+    private static Iterator<Path> readStandardInputPaths()
+    {
+        return readPaths(System.in);
+    }
+
+    /**
+     * Method to read a list of paths from a stream, separated by NUL characters. Paths may contain any other
+     * character, including spaces and line terminators.
+     *
+     * @param in InputStream supplying UTF-8 encoded paths
+     * @return Iterator over paths read from the stream
+     */
+    static Iterator<Path> readPaths(InputStream in)
+    {
+        Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name()).useDelimiter("\u0000");
+
+        return new Iterator<Path>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return scanner.hasNext();
+            }
+
+            @Override
+            public Path next()
+            {
+                return Paths.get(scanner.next());
+            }
+        };
+    }
+
+    /**
+     * Method to split a comma separated property value into a list of trimmed, non-empty values.
+     *
+     * @param value String containing comma separated values
+     * @return List of values
+     */
+    private static List<String> splitList(String value)
+    {
+        List<String> values = new ArrayList<>();
+
+        for (String item : value.split(","))
+        {
+            if (!item.trim().isEmpty())
+            {
+                values.add(item.trim());
+            }
+        }
+
+        return values;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,193 @@
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class watches an input directory for files being created or modified. Events arrive in bursts - a single save
+ * or copy often raises several - so they are debounced: changes are gathered until no further event has arrived for a
+ * quiet period, then returned together as one batch. Only files the supplied finder would select are reported.
+ */
+public class OpenApiYamlDirectoryWatcher
+        implements AutoCloseable
+{
+    // region STATIC VARIABLES
+
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 500;
+
+    // endregion
+
+    // region INSTANCE VARIABLES
+
+    // finder deciding which directories are watched and which files are reported
+    private final OpenApiYamlFileFinder finder;
+
+    // time without events after which gathered changes are returned
+    private final long debounceMillis;
+
+    // service receiving file system events
+    private final WatchService watchService;
+
+    // directory watched by each registered key
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+
+    // endregion
+
+    /**
+     * Public constructor. Starts watching the root directory, and each subdirectory the finder would search.
+     *
+     * @param pathToRootDirectory Path to directory to watch
+     * @param finder              OpenApiYamlFileFinder selecting directories to watch and files to report
+     * @param debounceMillis      time in milliseconds without events after which gathered changes are returned
+     * @throws Exception
+     */
+    public OpenApiYamlDirectoryWatcher(Path pathToRootDirectory, OpenApiYamlFileFinder finder, long debounceMillis)
+            throws Exception
+    {
+        this.finder = finder;
+        this.debounceMillis = debounceMillis;
+        this.watchService = pathToRootDirectory.getFileSystem().newWatchService();
+
+        registerDirectoryTree(pathToRootDirectory, null);
+    }
+
+    /**
+     * Method to wait for files to be created or modified, returning once a burst of changes has settled. Blocks until
+     * at least one matching file has changed.
+     *
+     * @return Set of paths to changed files, in the order first seen
+     * @throws Exception
+     */
+    public Set<Path> takeChangedFiles()
+            throws Exception
+    {
+        Set<Path> changedFiles = new LinkedHashSet<>();
+
+        while (changedFiles.isEmpty())
+        {
+            // block until the first event of a burst, then keep gathering until the burst goes quiet
+            WatchKey key = this.watchService.take();
+
+            while (key != null)
+            {
+                gatherChanges(key, changedFiles);
+                key = this.watchService.poll(this.debounceMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        return changedFiles;
+    }
+
+    /**
+     * Method to add the files changed according to a watch key's events, then re-arm the key.
+     */
+    private void gatherChanges(WatchKey key, Set<Path> changedFiles)
+            throws Exception
+    {
+        Path directory = this.watchedDirectories.get(key);
+
+        for (WatchEvent<?> event : key.pollEvents())
+        {
+            // events were lost - fall back to reporting every matching file
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+            {
+                this.finder.find(path -> {
+                    synchronized (changedFiles)
+                    {
+                        changedFiles.add(path);
+                    }
+                });
+                continue;
+            }
+
+            if (directory == null)
+            {
+                continue;
+            }
+
+            Path path = directory.resolve((Path) event.context());
+
+            // new subdirectories may already hold files, e.g. if moved into place
+            if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS))
+            {
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && this.finder.isSearchedDirectory(path))
+                {
+                    registerDirectoryTree(path, changedFiles);
+                }
+            }
+            else if (this.finder.matches(path))
+            {
+                changedFiles.add(path);
+            }
+        }
+
+        // stop tracking directories that have been deleted
+        if (!key.reset())
+        {
+            this.watchedDirectories.remove(key);
+        }
+    }
+
+    /**
+     * Method to watch a directory and every subdirectory beneath it that the finder would search, optionally adding
+     * the matching files already held within them.
+     *
+     * @param directory    Path to top of directory tree
+     * @param changedFiles Set receiving matching files found, or null if existing files should not be reported
+     */
+    private void registerDirectoryTree(Path directory, Set<Path> changedFiles)
+            throws Exception
+    {
+        // symbolic links to directories are not followed, matching the finder
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>()
+        {
+            @Override
+            public FileVisitResult preVisitDirectory(Path path, BasicFileAttributes attributes)
+                    throws IOException
+            {
+                if (!finder.isSearchedDirectory(path))
+                {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+
+                watchedDirectories.put(path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY), path);
+
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path path, BasicFileAttributes attributes)
+            {
+                if (changedFiles != null && finder.matches(path))
+                {
+                    changedFiles.add(path);
+                }
+
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Method to stop watching the root directory.
+     */
+    @Override
+    public void close()
+            throws IOException
+    {
+        this.watchService.close();
+    }
+}
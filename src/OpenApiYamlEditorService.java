@@ -1,8 +1,32 @@
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -12,15 +36,61 @@ public class OpenApiYamlEditorService
 {
     // region STATIC VARIABLES
 
-    public static final long MILLISECONDS_IN_ONE_HOUR = 3600000;
+    public static final int DEFAULT_MAX_OPEN_FILES = 256;
+
+    public static final int DEFAULT_PIPELINE_QUEUE_CAPACITY = 16;
+
+    public static final String RUN_REPORT_FILE_NAME = "run-report.json";
+
+    // marker placed on a pipeline queue to signal that no more files will follow
+    private static final OpenApiYamlFile END_OF_QUEUE = new OpenApiYamlFile(Path.of(""), Path.of(""));
+
+    // marker placed on the queue of discovered input files once the input directory has been searched
+    private static final Path END_OF_INPUT = Path.of("");
+
+    // endregion
+
+    // region ENUMS
+
+    /**
+     * Strategies available for processing the set of input files.
+     */
+    public enum ExecutionMode
+    {
+        // process one file at a time, aborting on the first failure
+        SEQUENTIAL,
+
+        // process files concurrently on a fixed pool of worker threads, collecting failures
+        PARALLEL,
+
+        // process each file on its own virtual thread, capping the number of files open at once
+        VIRTUAL,
+
+        // overlap reading, editing and writing in separate stages connected by bounded queues
+        PIPELINE
+    }
 
     // endregion
 
+    /**
+     * Functional interface for code supplying input files to be processed, adding each to a queue as it becomes
+     * available.
+     */
+    @FunctionalInterface
+    private interface InputFileSource
+    {
+        void addInputFiles(BlockingQueue<Path> pathsToProcess, AtomicBoolean cancelled)
+                throws Exception;
+    }
+
     // region INSTANCE VARIABLES
 
     // path to directory containing input .yaml files
     private final Path pathToInputDirectory;
 
+    // path to directory containing output subdirectories
+    private final Path pathToOutputDirectory;
+
     // path to subdirectory to hold all output files
     private final Path pathToAllVersionsOutputSubdirectory;
 
@@ -30,8 +100,72 @@ public class OpenApiYamlEditorService
     // flag to determine if latest versions of API collections should be copied to a target subdirectory
     private final boolean copyLatestVersions;
 
-    // set of paths to all .yaml files identified in input directory
-    private Set<Path> inputYamlFilePaths;
+    // how latest versions are placed in the latest versions subdirectory
+    private OpenApiYamlOutputFile.CopyMode latestCopyMode = OpenApiYamlOutputFile.CopyMode.COPY;
+
+    // flag to determine if subdirectories of the input directory are searched for input files
+    private boolean recursiveDiscovery;
+
+    // glob patterns selecting input files, matched against paths relative to the input directory
+    private List<String> includePatterns = Collections.singletonList(OpenApiYamlFileFinder.DEFAULT_INCLUDE_PATTERN);
+    private List<String> excludePatterns = Collections.emptyList();
+
+    // input file found for each file name during the current run - outputs share one subdirectory, so names must be
+    // unique across the input directory tree
+    private final Map<Path, Path> discoveredFileNames = new ConcurrentHashMap<>();
+
+    // latest version of each API collection identified in input directory
+    private OpenApiYamlLatestVersions latestVersions = new OpenApiYamlLatestVersions();
+
+    // set of paths to input files whose latest version copy was saved during the current run
+    private final Set<Path> savedLatestYamlFilePaths = ConcurrentHashMap.newKeySet();
+
+    // strategy used to process input files
+    private ExecutionMode executionMode = ExecutionMode.SEQUENTIAL;
+
+    // number of worker threads used when processing files in parallel
+    private int workerCount = Runtime.getRuntime().availableProcessors();
+
+    // maximum number of files processed at once when using one thread per file
+    private int maxOpenFiles = DEFAULT_MAX_OPEN_FILES;
+
+    // number of files held in memory between each pair of pipeline stages
+    private int pipelineQueueCapacity = DEFAULT_PIPELINE_QUEUE_CAPACITY;
+
+    // engine used to apply edits to each file
+    private OpenApiYamlFile.EditEngine editEngine = OpenApiYamlFile.EditEngine.LINES;
+
+    // minimum file size in bytes at which the bytes engine memory-maps input files
+    private long memoryMapThreshold = OpenApiYamlFile.DEFAULT_MEMORY_MAP_THRESHOLD;
+
+    // flag to determine if inputs unchanged since the previous run should be skipped
+    private boolean incrementalRuns;
+
+    // policy for flushing output files to storage
+    private OpenApiYamlOutputSync outputSync = new OpenApiYamlOutputSync(OpenApiYamlOutputSync.FsyncPolicy.NONE);
+
+    // manifest of processed inputs, or null if incremental runs are disabled
+    private OpenApiYamlManifest manifest;
+
+    // number of files saved during the current run, and how many of those left an identical output untouched
+    private final AtomicInteger savedFileCount = new AtomicInteger();
+    private final AtomicInteger unchangedOutputCount = new AtomicInteger();
+
+    // number of input files found during the current run, and how many of those were skipped as unchanged
+    private final AtomicInteger discoveredFileCount = new AtomicInteger();
+    private final AtomicInteger skippedFileCount = new AtomicInteger();
+
+    // timings of the current run, and how many of the slowest files to list when reporting them
+    private OpenApiYamlRunStatistics runStatistics = new OpenApiYamlRunStatistics(
+            OpenApiYamlRunStatistics.DEFAULT_SLOWEST_FILE_COUNT);
+    private int reportedSlowestFileCount = OpenApiYamlRunStatistics.DEFAULT_SLOWEST_FILE_COUNT;
+
+    // flag controlling whether run timings are also saved as JSON to the output directory
+    private boolean writeRunReport;
+
+    // metrics accumulated over every run, and the file they are saved to after each run, or null for none
+    private final OpenApiYamlMetrics metrics = new OpenApiYamlMetrics();
+    private Path pathToMetricsFile;
 
     // endregion
 
@@ -66,6 +200,7 @@ public class OpenApiYamlEditorService
         try
         {
             outputDirectory = validateAndGetPathToDirectory(pathToOutputDirectory);
+            this.pathToOutputDirectory = outputDirectory;
         }
         catch (Exception ex)
         {
@@ -88,149 +223,1170 @@ public class OpenApiYamlEditorService
         }
     }
 
+    /**
+     * Method to set the strategy used to process input files.
+     *
+     * @param executionMode ExecutionMode to use when run is called
+     */
+    public void setExecutionMode(ExecutionMode executionMode)
+    {
+        this.executionMode = executionMode;
+    }
+
+    /**
+     * Method to set the number of worker threads used when processing files in parallel.
+     *
+     * @param workerCount int containing number of worker threads (must be greater than zero)
+     * @throws Exception
+     */
+    public void setWorkerCount(int workerCount)
+            throws Exception
+    {
+        if (workerCount < 1)
+        {
+            throw new Exception("Worker count must be greater than zero. Value supplied was " + workerCount);
+        }
+
+        this.workerCount = workerCount;
+    }
+
+    /**
+     * Method to set the maximum number of files processed at once when using one thread per file.
+     *
+     * @param maxOpenFiles int containing maximum number of files open at once (must be greater than zero)
+     * @throws Exception
+     */
+    public void setMaxOpenFiles(int maxOpenFiles)
+            throws Exception
+    {
+        if (maxOpenFiles < 1)
+        {
+            throw new Exception("Maximum open files must be greater than zero. Value supplied was " + maxOpenFiles);
+        }
+
+        this.maxOpenFiles = maxOpenFiles;
+    }
+
+    /**
+     * Method to set the number of files held in memory between each pair of pipeline stages.
+     *
+     * @param pipelineQueueCapacity int containing capacity of each pipeline queue (must be greater than zero)
+     * @throws Exception
+     */
+    public void setPipelineQueueCapacity(int pipelineQueueCapacity)
+            throws Exception
+    {
+        if (pipelineQueueCapacity < 1)
+        {
+            throw new Exception(
+                    "Pipeline queue capacity must be greater than zero. Value supplied was " + pipelineQueueCapacity);
+        }
+
+        this.pipelineQueueCapacity = pipelineQueueCapacity;
+    }
+
+    /**
+     * Method to set the engine used to apply edits to each file. The pipeline execution mode only supports the
+     * line-based engine, as it reads, edits and writes each file in separate stages - runs combining it with another
+     * engine are rejected.
+     *
+     * @param editEngine EditEngine to use when run is called
+     */
+    public void setEditEngine(OpenApiYamlFile.EditEngine editEngine)
+    {
+        this.editEngine = editEngine;
+    }
+
+    /**
+     * Method to set the minimum file size at which the bytes engine memory-maps input files.
+     *
+     * @param memoryMapThreshold long containing file size in bytes (must not be negative)
+     * @throws Exception
+     */
+    public void setMemoryMapThreshold(long memoryMapThreshold)
+            throws Exception
+    {
+        if (memoryMapThreshold < 0)
+        {
+            throw new Exception("Memory map threshold must not be negative. Value supplied was " + memoryMapThreshold);
+        }
+
+        this.memoryMapThreshold = memoryMapThreshold;
+    }
+
+    /**
+     * Method to set whether inputs unchanged since the previous run should be skipped. When enabled, a manifest of
+     * processed inputs is kept in the output directory.
+     *
+     * @param incrementalRuns boolean to enable incremental runs
+     */
+    public void setIncrementalRuns(boolean incrementalRuns)
+    {
+        this.incrementalRuns = incrementalRuns;
+    }
+
+    /**
+     * Method to set the policy for flushing output files to storage.
+     *
+     * @param fsyncPolicy FsyncPolicy applied to output files
+     */
+    public void setFsyncPolicy(OpenApiYamlOutputSync.FsyncPolicy fsyncPolicy)
+    {
+        this.outputSync = new OpenApiYamlOutputSync(fsyncPolicy);
+    }
+
+    /**
+     * Method to set how latest versions are placed in the latest versions subdirectory. Links avoid duplicating bytes
+     * on disk; copying is used instead wherever the file system does not support the requested kind of link.
+     *
+     * @param latestCopyMode CopyMode used for the latest versions subdirectory
+     */
+    public void setLatestCopyMode(OpenApiYamlOutputFile.CopyMode latestCopyMode)
+    {
+        this.latestCopyMode = latestCopyMode;
+    }
+
+    /**
+     * Method to set whether subdirectories of the input directory are searched for input files. Subdirectories are
+     * searched in parallel, and output files are saved to the same output subdirectories regardless of where their
+     * input was found.
+     *
+     * @param recursiveDiscovery boolean to control searching of subdirectories
+     */
+    public void setRecursiveDiscovery(boolean recursiveDiscovery)
+    {
+        this.recursiveDiscovery = recursiveDiscovery;
+    }
+
+    /**
+     * Method to set the glob patterns used to select input files. Patterns are matched against each path relative to
+     * the input directory; exclude patterns also prevent matching subdirectories from being searched.
+     *
+     * @param includePatterns List of glob patterns a file must match at least one of
+     * @param excludePatterns List of glob patterns excluding any file or subdirectory that matches
+     */
+    public void setDiscoveryPatterns(List<String> includePatterns, List<String> excludePatterns)
+    {
+        this.includePatterns = includePatterns;
+        this.excludePatterns = excludePatterns;
+    }
+
+    /**
+     * Method to set how many of the slowest files are listed in the timings reported at the end of each run.
+     *
+     * @param reportedSlowestFileCount number of files to list, or 0 for none
+     */
+    public void setReportedSlowestFileCount(int reportedSlowestFileCount)
+    {
+        this.reportedSlowestFileCount = reportedSlowestFileCount;
+    }
+
+    /**
+     * Method to set whether the timings reported at the end of each run are also saved as JSON to the output
+     * directory.
+     *
+     * @param writeRunReport boolean to control saving of the run report
+     */
+    public void setWriteRunReport(boolean writeRunReport)
+    {
+        this.writeRunReport = writeRunReport;
+    }
+
+    /**
+     * Method to set the file metrics are saved to in Prometheus text format at the end of each run, e.g. for the node
+     * exporter textfile collector.
+     *
+     * @param pathToMetricsFile Path to metrics file, or null to not save metrics
+     */
+    public void setMetricsFile(Path pathToMetricsFile)
+    {
+        this.pathToMetricsFile = pathToMetricsFile;
+    }
+
+    /**
+     * Method to get the metrics accumulated over every run made by this service.
+     *
+     * @return OpenApiYamlMetrics updated as files are processed
+     */
+    public OpenApiYamlMetrics getMetrics()
+    {
+        return this.metrics;
+    }
+
     /**
      * Method to initiate and control overall flow of execution.
      */
     public void run()
             throws Exception
     {
-        // get set of paths to YAML files in directory (includes validation checks)
-        this.inputYamlFilePaths = getPathsToYamlFiles(this.pathToInputDirectory);
+        checkExecutionSettings();
+        resetFileCounts();
+        this.discoveredFileNames.clear();
+
+        // latest versions are tracked as input files are found, so they can be saved to both output subdirectories in
+        // the same write - any saved to the latest versions subdirectory before a later version turns up are removed
+        // once all files have been processed
+        this.latestVersions = new OpenApiYamlLatestVersions();
+        this.savedLatestYamlFilePaths.clear();
+
+        // load manifest so that inputs unchanged since the previous run can be skipped if requested
+        this.manifest = this.incrementalRuns ? new OpenApiYamlManifest(this.pathToOutputDirectory) : null;
+
+        boolean succeeded = false;
+
+        try
+        {
+            try
+            {
+                // search input directory in the background, feeding files to processing as they are found
+                processInputFiles(this::discoverInputFiles);
+
+                // validation - throw exception if no input files found
+                if (this.discoveredFileCount.get() == 0)
+                {
+                    throw new Exception("No .yaml files were found in this directory: " + this.pathToInputDirectory);
+                }
+
+                // copy subset of latest files if requested
+                if (this.copyLatestVersions)
+                {
+                    long startNanos = System.nanoTime();
+
+                    copyLatestFiles();
+
+                    recordPhase(OpenApiYamlRunStatistics.Phase.LATEST_COPY, System.nanoTime() - startNanos);
+                }
+            }
+            finally
+            {
+                // flush outputs once the latest versions subdirectory is complete, so its files are flushed too
+                completeBatch();
+            }
+
+            succeeded = true;
+        }
+        finally
+        {
+            saveMetrics(succeeded);
+        }
+
+        reportRunStatistics();
+    }
+
+    /**
+     * Method to process a list of input files rather than searching the input directory. Files are processed as the
+     * list is read, so it may be supplied incrementally (e.g. from a pipe). Outputs are saved to the all versions
+     * subdirectory only; as the list may not hold every version of a collection, the latest versions subdirectory is
+     * left for the next full run to update. Files are always processed, regardless of the incremental runs setting.
+     *
+     * @param yamlFilePaths Iterator over paths to input YAML files
+     */
+    public void runFiles(Iterator<Path> yamlFilePaths)
+            throws Exception
+    {
+        checkExecutionSettings();
+        resetFileCounts();
+        this.discoveredFileNames.clear();
+        this.latestVersions = new OpenApiYamlLatestVersions();
+        this.savedLatestYamlFilePaths.clear();
+        this.manifest = null;
+
+        boolean succeeded = false;
+
+        try
+        {
+            try
+            {
+                processInputFiles((pathsToProcess, cancelled) -> {
+                    while (!cancelled.get() && yamlFilePaths.hasNext())
+                    {
+                        Path yamlFilePath = yamlFilePaths.next();
+
+                        registerInputFile(yamlFilePath);
+                        pathsToProcess.put(yamlFilePath);
+                    }
+                });
+            }
+            finally
+            {
+                completeBatch();
+            }
+
+            succeeded = true;
+        }
+        finally
+        {
+            saveMetrics(succeeded);
+        }
+
+        reportRunStatistics();
+    }
+
+    /**
+     * Method to process every input file, then keep watching the input directory and re-process files as they are
+     * created or modified, until the thread is interrupted. Bursts of changes are debounced and processed together,
+     * and the latest versions subdirectory is updated for the files affected only. Files deleted from the input
+     * directory are not removed from the output directory until the next full run.
+     *
+     * @param debounceMillis time in milliseconds without changes after which a burst of changes is processed
+     */
+    public void watch(long debounceMillis)
+            throws Exception
+    {
+        OpenApiYamlFileFinder finder = createFileFinder();
+
+        // start watching before the initial run, so that no change made during it is missed
+        try (OpenApiYamlDirectoryWatcher watcher = new OpenApiYamlDirectoryWatcher(this.pathToInputDirectory, finder,
+                debounceMillis))
+        {
+            run();
+
+            System.out.println("Watching " + this.pathToInputDirectory + " for changes");
+
+            while (!Thread.currentThread().isInterrupted())
+            {
+                Set<Path> changedYamlFilePaths = watcher.takeChangedFiles();
+
+                System.out.println("Processing " + changedYamlFilePaths.size() + " changed file(s)");
+
+                // keep watching after a failed batch - the files involved are retried when next changed
+                try
+                {
+                    processChangedFiles(changedYamlFilePaths);
+                }
+                catch (Exception ex)
+                {
+                    ex.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Method to process a batch of input files that have been created or modified since they were last processed.
+     * Latest versions among them are saved to the latest versions subdirectory as usual; any latest version they
+     * supersede is removed from it once its replacement has been saved.
+     *
+     * @param changedYamlFilePaths Collection of paths to changed input files
+     */
+    private void processChangedFiles(Collection<Path> changedYamlFilePaths)
+            throws Exception
+    {
+        resetFileCounts();
+        this.savedLatestYamlFilePaths.clear();
+
+        // map of changed files to the latest version they supersede
+        Map<Path, Path> supersededYamlFilePaths = new HashMap<>();
+        BlockingQueue<Path> pathsToProcess = new LinkedBlockingQueue<>();
+        long startNanos = System.nanoTime();
+
+        for (Path yamlFilePath : changedYamlFilePaths)
+        {
+            // ignore files removed again before the burst settled
+            if (!Files.isRegularFile(yamlFilePath))
+            {
+                continue;
+            }
+
+            Path previousLatestYamlFilePath = this.latestVersions.getLatestPath(yamlFilePath);
+
+            if (acceptInputFile(yamlFilePath))
+            {
+                pathsToProcess.put(yamlFilePath);
+            }
+
+            if (previousLatestYamlFilePath != null && this.latestVersions.isLatest(yamlFilePath)
+                    && !previousLatestYamlFilePath.equals(yamlFilePath))
+            {
+                supersededYamlFilePaths.put(yamlFilePath, previousLatestYamlFilePath);
+            }
+        }
+
+        pathsToProcess.put(END_OF_INPUT);
+
+        recordPhase(OpenApiYamlRunStatistics.Phase.DISCOVERY, System.nanoTime() - startNanos);
+
+        boolean succeeded = false;
+
+        try
+        {
+            processFiles(pathsToProcess);
+            succeeded = true;
+        }
+        finally
+        {
+            completeBatch();
+            saveMetrics(succeeded);
+
+            // only remove a superseded latest version once its replacement is in place
+            if (this.copyLatestVersions)
+            {
+                for (Map.Entry<Path, Path> superseded : supersededYamlFilePaths.entrySet())
+                {
+                    if (this.savedLatestYamlFilePaths.contains(superseded.getKey()))
+                    {
+                        Files.deleteIfExists(this.pathToLatestVersionsOutputSubdirectory.resolve(
+                                superseded.getValue().getFileName()));
+                    }
+                }
+            }
+        }
+
+        reportRunStatistics();
+    }
+
+    /**
+     * Method to amend and save input files supplied by a source running in the background, so that processing starts
+     * as soon as the first file is available. The source is abandoned if processing stops early. The caller must
+     * complete the batch once any further outputs have been saved.
+     *
+     * @param source InputFileSource supplying input files
+     */
+    private void processInputFiles(InputFileSource source)
+            throws Exception
+    {
+        BlockingQueue<Path> pathsToProcess = new LinkedBlockingQueue<>();
+        AtomicBoolean sourceCancelled = new AtomicBoolean();
+
+        // daemon thread, so that a source blocked reading input never prevents the JVM from exiting
+        ExecutorService sourceExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "input-file-source");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Future<?> sourceResult = sourceExecutor.submit(() -> {
+            long startNanos = System.nanoTime();
+
+            try
+            {
+                source.addInputFiles(pathsToProcess, sourceCancelled);
+            }
+            finally
+            {
+                pathsToProcess.put(END_OF_INPUT);
+
+                recordPhase(OpenApiYamlRunStatistics.Phase.DISCOVERY, System.nanoTime() - startNanos);
+            }
+
+            return null;
+        });
+
+        try
+        {
+            processFiles(pathsToProcess);
+
+            // report any error raised while supplying input files
+            try
+            {
+                sourceResult.get();
+            }
+            catch (ExecutionException ex)
+            {
+                throw ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex;
+            }
+        }
+        finally
+        {
+            // stop supplying files if processing was abandoned early
+            sourceCancelled.set(true);
+            sourceExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Method to amend and save input files from a queue using the selected execution mode.
+     *
+     * @param pathsToProcess BlockingQueue of paths to input files, ending with the end of input marker
+     */
+    private void processFiles(BlockingQueue<Path> pathsToProcess)
+            throws Exception
+    {
+        // amend files and save to output directory using selected strategy
+        switch (this.executionMode)
+        {
+            case PARALLEL:
+                processFilesInParallel(pathsToProcess, Executors.newFixedThreadPool(this.workerCount), null);
+                break;
+            case VIRTUAL:
+                processFilesInParallel(pathsToProcess, newThreadPerTaskExecutor(this.maxOpenFiles),
+                        new Semaphore(this.maxOpenFiles));
+                break;
+            case PIPELINE:
+                processFilesInPipeline(pathsToProcess);
+                break;
+            default:
+                processFilesSequentially(pathsToProcess);
+                break;
+        }
+    }
+
+    /**
+     * Method to check that the execution settings can be used together, before a run starts.
+     */
+    private void checkExecutionSettings()
+            throws Exception
+    {
+        if (this.executionMode == ExecutionMode.PIPELINE && this.editEngine != OpenApiYamlFile.EditEngine.LINES)
+        {
+            throw new Exception("The pipeline execution mode only supports the lines edit engine. Value supplied was "
+                    + this.editEngine.name().toLowerCase());
+        }
+    }
+
+    /**
+     * Method to reset the file counts and timings reported at the end of each run or batch.
+     */
+    private void resetFileCounts()
+    {
+        this.savedFileCount.set(0);
+        this.unchangedOutputCount.set(0);
+        this.discoveredFileCount.set(0);
+        this.skippedFileCount.set(0);
+
+        this.runStatistics = new OpenApiYamlRunStatistics(this.reportedSlowestFileCount);
+    }
+
+    /**
+     * Method to finish a run or batch of files: flushes outputs, saves the manifest if incremental runs are enabled and
+     * reports the file counts.
+     */
+    private void completeBatch()
+            throws Exception
+    {
+        // flush outputs before the manifest that records them
+        this.outputSync.syncBatch();
+
+        // save manifest even if some files failed, so that completed files are skipped next time
+        if (this.manifest != null)
+        {
+            this.manifest.save(this.outputSync);
+            this.outputSync.syncBatch();
+
+            System.out.println("Skipped " + this.skippedFileCount.get() + " unchanged file(s)");
+        }
+
+        System.out.println("Processed " + this.savedFileCount.get() + " file(s); left "
+                + this.unchangedOutputCount.get() + " identical output file(s) untouched");
+    }
+
+    /**
+     * Method to record the duration of a phase in both the statistics of the current run and the metrics.
+     */
+    private void recordPhase(OpenApiYamlRunStatistics.Phase phase, long nanos)
+    {
+        this.runStatistics.recordPhase(phase, nanos);
+        this.metrics.recordPhase(phase, nanos);
+    }
+
+    /**
+     * Method to record the completion of a run or batch in the metrics, and save them to the metrics file if one is
+     * set. A metrics file that cannot be saved is reported without failing the run.
+     *
+     * @param succeeded boolean recording whether every file was processed
+     */
+    private void saveMetrics(boolean succeeded)
+    {
+        this.metrics.recordRun(succeeded);
+
+        if (this.pathToMetricsFile == null)
+        {
+            return;
+        }
+
+        try
+        {
+            this.metrics.save(this.pathToMetricsFile, this.outputSync);
+            this.outputSync.syncBatch();
+        }
+        catch (Exception ex)
+        {
+            System.out.println("Could not save metrics to " + this.pathToMetricsFile + ": " + ex);
+        }
+    }
+
+    /**
+     * Method to report the timings of a completed run or batch, and save them as JSON to the output directory if
+     * requested.
+     */
+    private void reportRunStatistics()
+            throws Exception
+    {
+        System.out.print(this.runStatistics.toSummary());
+
+        if (this.writeRunReport)
+        {
+            try (OpenApiYamlOutputFile output = new OpenApiYamlOutputFile(
+                    this.pathToOutputDirectory.resolve(RUN_REPORT_FILE_NAME), this.outputSync))
+            {
+                Files.write(output.getPathToTemporaryFile(),
+                        this.runStatistics.toJson().getBytes(StandardCharsets.UTF_8));
+
+                output.commit();
+            }
+
+            this.outputSync.syncBatch();
+        }
+    }
+
+    /**
+     * Method to create a YAML file object for an input path, configured with the current edit settings.
+     *
+     * @param yamlFilePath Path to input YAML file
+     * @return OpenApiYamlFile saving to the all versions output subdirectory
+     */
+    private OpenApiYamlFile createYamlFile(Path yamlFilePath)
+            throws Exception
+    {
+        OpenApiYamlFile file = newYamlFile(yamlFilePath, this.pathToAllVersionsOutputSubdirectory, this.editEngine);
+        file.setMemoryMapThreshold(this.memoryMapThreshold);
+        file.setOutputSync(this.outputSync);
 
-        // iterate over set of paths
-        for (Path yamlFilePath : inputYamlFilePaths)
+        // hash content as it is read, so that the manifest records exactly what was processed
+        file.setHashContent(this.manifest != null);
+
+        // save latest versions straight to the latest versions subdirectory as well
+        if (this.copyLatestVersions && this.latestVersions.isLatest(yamlFilePath))
+        {
+            file.setCopyOutputDirectory(this.pathToLatestVersionsOutputSubdirectory, this.latestCopyMode);
+        }
+
+        return file;
+    }
+
+    /**
+     * Method to construct a YAML file object, before it is configured. Package-private so that tests can substitute
+     * files that fail, or that record when they are processed.
+     *
+     * @param yamlFilePath          Path to input YAML file
+     * @param pathToOutputDirectory Path to directory to save amended file to
+     * @param editEngine            EditEngine used by amendAndSave
+     * @return OpenApiYamlFile for the input file
+     */
+    OpenApiYamlFile newYamlFile(Path yamlFilePath, Path pathToOutputDirectory, OpenApiYamlFile.EditEngine editEngine)
+    {
+        return new OpenApiYamlFile(yamlFilePath, pathToOutputDirectory, editEngine);
+    }
+
+    /**
+     * Method to search the input directory, adding each input file that requires processing to a queue as it is found.
+     *
+     * @param pathsToProcess     BlockingQueue receiving paths to input files
+     * @param discoveryCancelled AtomicBoolean set once processing has stopped and the search should be abandoned
+     */
+    private void discoverInputFiles(BlockingQueue<Path> pathsToProcess, AtomicBoolean discoveryCancelled)
+            throws Exception
+    {
+        createFileFinder().find(yamlFilePath -> {
+            if (discoveryCancelled.get())
+            {
+                throw new Exception("Search of input directory was cancelled");
+            }
+
+            if (acceptInputFile(yamlFilePath))
+            {
+                pathsToProcess.put(yamlFilePath);
+            }
+        });
+    }
+
+    /**
+     * Method to create a finder selecting input files according to the current discovery settings.
+     *
+     * @return OpenApiYamlFileFinder searching the input directory
+     */
+    private OpenApiYamlFileFinder createFileFinder()
+    {
+        OpenApiYamlFileFinder finder = new OpenApiYamlFileFinder(this.pathToInputDirectory, this.recursiveDiscovery,
+                this.includePatterns, this.excludePatterns, this.workerCount);
+
+        // never treat output files as input, should the output directory be held within the input directory
+        finder.excludeDirectory(this.pathToOutputDirectory);
+
+        return finder;
+    }
+
+    /**
+     * Method to record an input file that has been found, and decide whether it requires processing. Files unchanged
+     * since the previous run are skipped if incremental runs are enabled. Throws exception if another input file with
+     * the same name has already been found, as both would be saved to the same output file.
+     *
+     * @param yamlFilePath Path to input YAML file
+     * @return true if the file should be processed
+     */
+    private boolean acceptInputFile(Path yamlFilePath)
+            throws Exception
+    {
+        registerInputFile(yamlFilePath);
+        this.latestVersions.add(yamlFilePath);
+
+        if (this.manifest != null && this.manifest.isUnchanged(getManifestKey(yamlFilePath), yamlFilePath,
+                this.pathToAllVersionsOutputSubdirectory.resolve(yamlFilePath.getFileName())))
+        {
+            this.skippedFileCount.incrementAndGet();
+            this.metrics.recordSkippedFile();
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Method to count an input file supplied for processing. Throws exception if another input file with the same name
+     * has already been supplied, as both would be saved to the same output file.
+     *
+     * @param yamlFilePath Path to input YAML file
+     */
+    private void registerInputFile(Path yamlFilePath)
+            throws Exception
+    {
+        this.discoveredFileCount.incrementAndGet();
+
+        Path previousYamlFilePath = this.discoveredFileNames.putIfAbsent(yamlFilePath.getFileName(), yamlFilePath);
+
+        if (previousYamlFilePath != null && !previousYamlFilePath.equals(yamlFilePath))
+        {
+            throw new Exception("Input files share the same name and would overwrite each other's output: "
+                    + previousYamlFilePath + " and " + yamlFilePath);
+        }
+    }
+
+    /**
+     * Method to record a successfully saved file in the run totals, and in the manifest if incremental runs are
+     * enabled.
+     *
+     * @param file OpenApiYamlFile that has been saved
+     */
+    private void recordSavedFile(OpenApiYamlFile file)
+            throws Exception
+    {
+        this.savedFileCount.incrementAndGet();
+        this.runStatistics.recordFile(file);
+        this.metrics.recordFile(file);
+
+        if (file.isOutputUnchanged())
+        {
+            this.unchangedOutputCount.incrementAndGet();
+        }
+
+        if (this.copyLatestVersions && this.latestVersions.isLatest(file.getPathToInputFile()))
+        {
+            this.savedLatestYamlFilePaths.add(file.getPathToInputFile());
+        }
+
+        if (this.manifest != null)
+        {
+            this.manifest.record(getManifestKey(file.getPathToInputFile()), file.getContentHash());
+        }
+    }
+
+    /**
+     * Method to get the key identifying an input file in the manifest - its path relative to the input directory.
+     */
+    private String getManifestKey(Path yamlFilePath)
+    {
+        return this.pathToInputDirectory.relativize(yamlFilePath).toString();
+    }
+
+    /**
+     * Method to amend and save each input file in turn. Aborts on the first file that cannot be processed.
+     *
+     * @param pathsToProcess BlockingQueue of paths to input files, ending with the end of input marker
+     */
+    private void processFilesSequentially(BlockingQueue<Path> pathsToProcess)
+            throws Exception
+    {
+        Path yamlFilePath;
+
+        // take paths as they are found until the input directory has been searched
+        while ((yamlFilePath = pathsToProcess.take()) != END_OF_INPUT)
         {
             // create YAML file object from next path
-            OpenApiYamlFile file = new OpenApiYamlFile(yamlFilePath, this.pathToAllVersionsOutputSubdirectory);
+            OpenApiYamlFile file = createYamlFile(yamlFilePath);
 
             // amend file and save to output directory
-            file.amendAndSave();
+            try
+            {
+                file.amendAndSave();
+            }
+            catch (Exception ex)
+            {
+                this.metrics.recordFailedFiles(1);
+                throw ex;
+            }
+
+            recordSavedFile(file);
         }
+    }
 
-        // copy subset of latest files if requested
-        if (this.copyLatestVersions)
+    /**
+     * Method to amend and save input files concurrently using the supplied executor. Every file is attempted;
+     * failures are collected and reported together once all files have been processed.
+     *
+     * @param pathsToProcess BlockingQueue of paths to input files, ending with the end of input marker
+     * @param executor       ExecutorService to run one task per file on (shut down once processing completes)
+     * @param openFileLimit  Semaphore capping the number of files processed at once, or null for no cap
+     */
+    private void processFilesInParallel(BlockingQueue<Path> pathsToProcess, ExecutorService executor,
+            Semaphore openFileLimit)
+            throws Exception
+    {
+        // map of input paths to pending results, kept in submission order for reporting
+        Map<Path, Future<?>> pendingFiles = new LinkedHashMap<>();
+
+        try
         {
-            copyLatestFiles();
+            Path yamlFilePath;
+
+            // submit one task per input file as it is found
+            while ((yamlFilePath = pathsToProcess.take()) != END_OF_INPUT)
+            {
+                OpenApiYamlFile file = createYamlFile(yamlFilePath);
+
+                if (openFileLimit == null)
+                {
+                    pendingFiles.put(yamlFilePath, executor.submit(() -> {
+                        file.amendAndSave();
+                        recordSavedFile(file);
+                        return null;
+                    }));
+
+                    continue;
+                }
+
+                // wait for a free slot before submitting, so that no more than the limit of tasks ever exist at once
+                openFileLimit.acquire();
+
+                pendingFiles.put(yamlFilePath, executor.submit(() -> {
+                    try
+                    {
+                        file.amendAndSave();
+                        recordSavedFile(file);
+                    }
+                    finally
+                    {
+                        openFileLimit.release();
+                    }
+
+                    return null;
+                }));
+            }
+
+            // wait for every task and collect failures rather than aborting on the first
+            Map<Path, Throwable> failedFiles = new LinkedHashMap<>();
+
+            for (Map.Entry<Path, Future<?>> pendingFile : pendingFiles.entrySet())
+            {
+                try
+                {
+                    pendingFile.getValue().get();
+                }
+                catch (ExecutionException ex)
+                {
+                    failedFiles.put(pendingFile.getKey(), ex.getCause());
+                }
+            }
+
+            reportFailedFiles(failedFiles);
+        }
+        finally
+        {
+            executor.shutdownNow();
         }
     }
 
     /**
-     * Method to validate a string containing a directory and return a path object for that directory.
+     * Method to amend and save input files in a three-stage pipeline. Reader threads load files into a bounded queue,
+     * transformer threads apply edits and pass files on to a second bounded queue, and writer threads save them. Full
+     * queues block the stage feeding them, so at most a fixed number of files are held in memory regardless of how
+     * many are being processed. Failures are collected and reported together once all files have been processed.
      *
-     * @param directory String containing directory
-     * @return Path to directory
+     * @param pathsToRead BlockingQueue of paths to input files, ending with the end of input marker
      */
-    private Path validateAndGetPathToDirectory(String directory)
+    private void processFilesInPipeline(BlockingQueue<Path> pathsToRead)
             throws Exception
     {
+        // queues connecting each stage
+        BlockingQueue<OpenApiYamlFile> filesToAmend = new ArrayBlockingQueue<>(this.pipelineQueueCapacity);
+        BlockingQueue<OpenApiYamlFile> filesToSave = new ArrayBlockingQueue<>(this.pipelineQueueCapacity);
 
-        // create path object for supplied string - throws exception automatically if this doesn't map to a valid
-        // filesystem object
-        Path pathToDirectory = Path.of(directory);
+        // failures from any stage, sorted by path for reporting
+        Map<Path, Throwable> failedFiles = new ConcurrentSkipListMap<>();
 
-        // confirm this path objects references a directory
-        if (!Files.isDirectory(pathToDirectory))
+        ExecutorService readers = Executors.newFixedThreadPool(this.workerCount);
+        ExecutorService transformers = Executors.newFixedThreadPool(this.workerCount);
+        ExecutorService writers = Executors.newFixedThreadPool(this.workerCount);
+
+        // results of every stage thread, queued as each finishes so that a thread failing in any stage is seen at once
+        BlockingQueue<Future<Integer>> finishedTasks = new LinkedBlockingQueue<>();
+        List<Future<Integer>> tasks = new ArrayList<>();
+        CompletionService<Integer> readerTasks = new ExecutorCompletionService<>(readers, finishedTasks);
+        CompletionService<Integer> transformerTasks = new ExecutorCompletionService<>(transformers, finishedTasks);
+        CompletionService<Integer> writerTasks = new ExecutorCompletionService<>(writers, finishedTasks);
+
+        // queue read by the stage following each stage, and number of threads still running in each stage - indexed by
+        // the stage number each thread returns once it finishes
+        List<BlockingQueue<OpenApiYamlFile>> nextQueues = Arrays.asList(filesToAmend, filesToSave, null);
+        int[] runningTasks = {this.workerCount, this.workerCount, this.workerCount};
+
+        try
         {
-            throw new Exception("Value supplied does not reference a directory: " + directory);
+            for (int i = 0; i < this.workerCount; i++)
+            {
+                // read stage - take paths as they are found until the input directory has been searched
+                tasks.add(readerTasks.submit(() -> {
+                    Path yamlFilePath;
+
+                    while ((yamlFilePath = pathsToRead.take()) != END_OF_INPUT)
+                    {
+                        OpenApiYamlFile file = createYamlFile(yamlFilePath);
+
+                        try
+                        {
+                            file.read();
+                        }
+                        catch (Exception ex)
+                        {
+                            failedFiles.put(yamlFilePath, ex);
+                            continue;
+                        }
+
+                        filesToAmend.put(file);
+                    }
+
+                    // leave end of input marker in place for the remaining readers
+                    pathsToRead.put(END_OF_INPUT);
+
+                    return 0;
+                }));
+
+                // transform stage - edit files until end of queue is signalled
+                tasks.add(transformerTasks.submit(() -> {
+                    OpenApiYamlFile file;
+
+                    while ((file = filesToAmend.take()) != END_OF_QUEUE)
+                    {
+                        try
+                        {
+                            file.amend();
+                        }
+                        catch (Exception ex)
+                        {
+                            failedFiles.put(file.getPathToInputFile(), ex);
+                            continue;
+                        }
+
+                        filesToSave.put(file);
+                    }
+
+                    return 1;
+                }));
+
+                // write stage - save files until end of queue is signalled
+                tasks.add(writerTasks.submit(() -> {
+                    OpenApiYamlFile file;
+
+                    while ((file = filesToSave.take()) != END_OF_QUEUE)
+                    {
+                        try
+                        {
+                            file.save();
+                            recordSavedFile(file);
+                        }
+                        catch (Exception ex)
+                        {
+                            failedFiles.put(file.getPathToInputFile(), ex);
+                        }
+                    }
+
+                    return 2;
+                }));
+            }
+
+            // close each stage in turn once the stage feeding it has finished - a thread failing in any stage abandons
+            // the whole pipeline, as the threads waiting on it would otherwise never finish
+            for (int finished = 0; finished < tasks.size(); finished++)
+            {
+                int stage = getPipelineTaskResult(finishedTasks.take());
+
+                if (--runningTasks[stage] == 0 && nextQueues.get(stage) != null)
+                {
+                    signalEndOfQueue(nextQueues.get(stage), tasks);
+                }
+            }
+        }
+        finally
+        {
+            readers.shutdownNow();
+            transformers.shutdownNow();
+            writers.shutdownNow();
         }
 
-        return pathToDirectory;
+        reportFailedFiles(failedFiles);
     }
 
     /**
-     * Method to get a set of paths to all YAML files identified within a directory. Throws exception if no YAML files
-     * are found.
+     * Method to signal the end of a queue to every thread of the pipeline stage reading it. Checks for failed threads
+     * while the queue is full, as a failed stage might never take from it again.
+     *
+     * @param queue BlockingQueue read by the stage
+     * @param tasks List of results of every pipeline thread
      */
-    private Set<Path> getPathsToYamlFiles(Path directory)
+    private void signalEndOfQueue(BlockingQueue<OpenApiYamlFile> queue, List<Future<Integer>> tasks)
             throws Exception
     {
-        // get set of paths to YAML files in directory
-        Set<Path> yamlFilePaths = Files.list(directory)
-                .filter(path -> path.toString()
-                        .endsWith(".yaml"))
-                .collect(Collectors.toSet());
+        for (int i = 0; i < this.workerCount; i++)
+        {
+            while (!queue.offer(END_OF_QUEUE, 100, TimeUnit.MILLISECONDS))
+            {
+                for (Future<Integer> task : tasks)
+                {
+                    if (task.isDone())
+                    {
+                        getPipelineTaskResult(task);
+                    }
+                }
+            }
+        }
+    }
 
-        // validation - throw exception if no YAML files found
-        if (yamlFilePaths.size() == 0)
+    /**
+     * Method to get the result of a finished pipeline thread. Throws exception if the thread failed rather than
+     * recording a failure against a file, e.g. with an Error such as OutOfMemoryError.
+     *
+     * @param task Future of a finished pipeline thread
+     * @return index of the stage the thread belongs to
+     */
+    private int getPipelineTaskResult(Future<Integer> task)
+            throws Exception
+    {
+        try
+        {
+            return task.get();
+        }
+        catch (ExecutionException ex)
         {
-            throw new Exception("No .yaml files were found in this directory: " + pathToLatestVersionsOutputSubdirectory.toString());
+            throw new Exception("Pipeline stage failed: " + ex.getCause(), ex.getCause());
         }
+    }
 
-        return yamlFilePaths;
+    /**
+     * Method to create an executor that starts a new virtual thread for each task. Virtual threads are only available
+     * from Java 21, so the factory method is looked up at runtime; older runtimes fall back to a fixed pool of platform
+     * threads, as a thread per task would start one operating system thread for every task submitted.
+     *
+     * @param fallbackThreadCount number of platform threads to use where virtual threads are not supported
+     * @return ExecutorService running each task on its own virtual thread, or on a fixed pool of platform threads
+     */
+    static ExecutorService newThreadPerTaskExecutor(int fallbackThreadCount)
+    {
+        try
+        {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException ex)
+        {
+            System.out.println("Virtual threads are not supported by this Java runtime - using " + fallbackThreadCount
+                    + " platform threads");
+
+            return Executors.newFixedThreadPool(fallbackThreadCount);
+        }
     }
 
     /**
-     * Method to identify latest version of each API collection and copy just these files to a specified directory.
+     * Method to report files that could not be processed. Throws exception summarising failures if any are found.
+     *
+     * @param failedFiles Map of input paths to the error raised while processing them
      */
-    private void copyLatestFiles()
+    private void reportFailedFiles(Map<Path, Throwable> failedFiles)
             throws Exception
     {
-        // generate set of output files
-        Set<Path> outputYamlFilePaths = getPathsToYamlFiles(this.pathToAllVersionsOutputSubdirectory);
+        if (failedFiles.isEmpty())
+        {
+            return;
+        }
 
-        // create set of unique API collection names by removing "-vXX.yaml" from the end of the path
-        Set<String> uniqueCollectionNames = outputYamlFilePaths.stream()
-                .map(path -> path.getName(path.getNameCount() - 1)
-                        .toString()
-                        .replaceAll("(-v)\\d+(.yaml)", ""))
-                .collect(Collectors.toSet());
+        this.metrics.recordFailedFiles(failedFiles.size());
 
-        // prepare set to hold paths for latest versions of each collection
-        Set<Path> highestVersions = new HashSet<>();
+        List<String> failureMessages = new ArrayList<>();
 
-        // iterate over set of unique API collection names and find highest version for each
-        for (String collectionName : uniqueCollectionNames)
+        for (Map.Entry<Path, Throwable> failedFile : failedFiles.entrySet())
         {
-            // get set of paths containing this collection name
-            Set<Path> collectionPaths = outputYamlFilePaths.stream()
-                    .filter(path -> path.getName(path.getNameCount() - 1)
-                            .toString()
-                            .startsWith(collectionName))
-                    .collect(Collectors.toSet());
+            failureMessages.add(failedFile.getKey().getFileName() + ": " + failedFile.getValue());
+        }
 
-            // search this set to find the highest version value
-            int highestVersion = collectionPaths.stream()
-                    .mapToInt(path -> Integer.parseInt(
-                            path.getName(path.getNameCount() - 1)
-                                    .toString()
-                                    .replaceAll("[^\\d]", ""))
-                    )
-                    .max()
-                    .orElseThrow();
+        throw new Exception(failedFiles.size() + " file(s) could not be processed:" + System.lineSeparator()
+                + String.join(System.lineSeparator(), failureMessages));
+    }
 
-            // get the path corresponding to this collection name and version number
-            Path collectionPathHighestVersion =
-                    collectionPaths.stream()
-                            .filter(path -> path.getName(path.getNameCount() - 1)
-                                    .toString()
-                                    .contains("-v" + highestVersion))
-                            .collect(Collectors.toList())
-                            .get(0);
+    /**
+     * Method to validate a string containing a directory and return a path object for that directory.
+     *
+     * @param directory String containing directory
+     * @return Path to directory
+     */
+    private Path validateAndGetPathToDirectory(String directory)
+            throws Exception
+    {
 
-            // add this path to the set of paths to be copied
-            highestVersions.add(collectionPathHighestVersion);
-        }
+        // create path object for supplied string - throws exception automatically if this doesn't map to a valid
+        // filesystem object
+        Path pathToDirectory = Path.of(directory);
 
-        // copy all files to latest versions subdirectory
-        for (Path pathToHighestVersionFile : highestVersions)
+        // confirm this path objects references a directory
+        if (!Files.isDirectory(pathToDirectory))
         {
-            Files.copy(pathToHighestVersionFile,
-                    this.pathToLatestVersionsOutputSubdirectory.resolve(pathToHighestVersionFile.getFileName()),
-                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            throw new Exception("Value supplied does not reference a directory: " + directory);
         }
 
-        // get all files in output subdirectory
-        Set<Path> latestYamlFilePaths = getPathsToYamlFiles(this.pathToLatestVersionsOutputSubdirectory);
+        return pathToDirectory;
+    }
 
-        // filter only for stale files not updated in last hour
-        Set<Path> staleFilePaths = latestYamlFilePaths.stream()
-                .filter(path -> path.toFile().lastModified() < System.currentTimeMillis() - MILLISECONDS_IN_ONE_HOUR)
+    /**
+     * Method to complete the latest versions subdirectory once all files have been processed. Latest versions are
+     * identified while processing inputs and normally saved there directly; this copies across any that were not
+     * saved during this run (e.g. skipped as unchanged), then removes every file that is not a current latest version.
+     */
+    private void copyLatestFiles()
+            throws Exception
+    {
+        OpenApiYamlEvents.LatestCopy event = OpenApiYamlEvents.LatestCopy.start();
+        int copiedFileCount = 0;
+        int deletedFileCount = 0;
+
+        // copy latest versions not saved during this run from the all versions subdirectory
+        for (Path latestYamlFilePath : this.latestVersions.getLatestPaths())
+        {
+            Path pathToOutputFile = this.pathToAllVersionsOutputSubdirectory.resolve(latestYamlFilePath.getFileName());
+
+            if (!this.savedLatestYamlFilePaths.contains(latestYamlFilePath) && Files.exists(pathToOutputFile))
+            {
+                OpenApiYamlOutputFile.copy(pathToOutputFile,
+                        this.pathToLatestVersionsOutputSubdirectory.resolve(latestYamlFilePath.getFileName()),
+                        this.latestCopyMode, this.outputSync);
+                copiedFileCount++;
+            }
+        }
+
+        // names of files that should remain in the latest versions subdirectory
+        Set<Path> latestFileNames = this.latestVersions.getLatestPaths().stream()
+                .map(Path::getFileName)
                 .collect(Collectors.toSet());
 
-        // delete stale files not updated in last hour
-        for (Path staleFilePath : staleFilePaths)
+        // delete files that are not a current latest version, in a single pass over the subdirectory
+        try (DirectoryStream<Path> latestYamlFilePaths = Files.newDirectoryStream(
+                this.pathToLatestVersionsOutputSubdirectory, "*.yaml"))
         {
-            Files.delete(staleFilePath);
+            for (Path latestYamlFilePath : latestYamlFilePaths)
+            {
+                if (!latestFileNames.contains(latestYamlFilePath.getFileName()))
+                {
+                    Files.delete(latestYamlFilePath);
+                    deletedFileCount++;
+                }
+            }
         }
+
+        event.complete(latestFileNames.size(), copiedFileCount, deletedFileCount);
     }
 }
\ No newline at end of file
@@ -0,0 +1,209 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.nio.file.Path;
+
+/**
+ * This class holds the Java Flight Recorder events emitted while processing files, so that a recording of a run shows
+ * the cost of each file and edit step alongside garbage collection and I/O activity. Events cost next to nothing
+ * unless a recording is in progress; their fields are only filled in once an event is known to be recorded.
+ */
+public final class OpenApiYamlEvents
+{
+    // region STATIC VARIABLES
+
+    private static final String CATEGORY = "OpenAPI Editor";
+
+    // endregion
+
+    private OpenApiYamlEvents()
+    {
+    }
+
+    /**
+     * This class represents the amendment and saving of a single file.
+     */
+    @Name("openapi.editor.FileProcessed")
+    @Label("File Processed")
+    @Description("An input file read, amended and saved to the output directory")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class FileProcessed
+            extends Event
+    {
+        @Label("Input File")
+        String path;
+
+        @Label("Edit Engine")
+        String editEngine;
+
+        @Label("Input Size")
+        @DataAmount
+        long inputBytes;
+
+        @Label("Output Size")
+        @DataAmount
+        long outputBytes;
+
+        @Label("Lines Read")
+        long lineCount;
+
+        @Label("Authentication Lines Removed")
+        long linesRemoved;
+
+        @Label("Base URL Outcome")
+        @Description("Whether the base URL was replaced with a variable, or why it was left unchanged")
+        String baseUrlOutcome;
+
+        @Label("Output Unchanged")
+        @Description("Whether an identical existing output file was left untouched")
+        boolean outputUnchanged;
+
+        /**
+         * Method to create an event and start timing it.
+         *
+         * @return FileProcessed event in progress
+         */
+        public static FileProcessed start()
+        {
+            FileProcessed event = new FileProcessed();
+            event.begin();
+
+            return event;
+        }
+
+        /**
+         * Method to stop timing the event and commit it, if it is being recorded, with the statistics of a saved file.
+         *
+         * @param file OpenApiYamlFile that has been saved
+         */
+        public void complete(OpenApiYamlFile file)
+        {
+            end();
+
+            if (shouldCommit())
+            {
+                this.path = file.getPathToInputFile().toString();
+                this.editEngine = file.getEditEngine().name();
+                this.inputBytes = file.getInputBytes();
+                this.outputBytes = file.getOutputBytes();
+                this.lineCount = file.getLineCount();
+                this.linesRemoved = file.getAuthenticationLinesRemoved();
+                this.baseUrlOutcome = file.getBaseUrlOutcome() == null ? null : file.getBaseUrlOutcome().name();
+                this.outputUnchanged = file.isOutputUnchanged();
+
+                commit();
+            }
+        }
+    }
+
+    /**
+     * This class represents a single step in amending or saving a file.
+     */
+    @Name("openapi.editor.EditStep")
+    @Label("Edit Step")
+    @Description("A single step in amending or saving an input file")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class EditStep
+            extends Event
+    {
+        @Label("Input File")
+        String path;
+
+        @Label("Step")
+        String step;
+
+        /**
+         * Method to create an event and start timing it.
+         *
+         * @return EditStep event in progress
+         */
+        public static EditStep start()
+        {
+            EditStep event = new EditStep();
+            event.begin();
+
+            return event;
+        }
+
+        /**
+         * Method to stop timing the event and commit it, if it is being recorded.
+         *
+         * @param pathToInputFile Path to file being edited
+         * @param step            String containing name of the step
+         */
+        public void complete(Path pathToInputFile, String step)
+        {
+            end();
+
+            if (shouldCommit())
+            {
+                this.path = pathToInputFile.toString();
+                this.step = step;
+
+                commit();
+            }
+        }
+    }
+
+    /**
+     * This class represents the completion of the latest versions subdirectory at the end of a run.
+     */
+    @Name("openapi.editor.LatestCopy")
+    @Label("Latest Versions Copied")
+    @Description("Latest versions not saved during the run copied to the latest versions subdirectory, and "
+            + "superseded versions removed from it")
+    @Category(CATEGORY)
+    public static class LatestCopy
+            extends Event
+    {
+        @Label("Latest Versions")
+        int latestFileCount;
+
+        @Label("Files Copied")
+        int copiedFileCount;
+
+        @Label("Files Deleted")
+        int deletedFileCount;
+
+        /**
+         * Method to create an event and start timing it.
+         *
+         * @return LatestCopy event in progress
+         */
+        public static LatestCopy start()
+        {
+            LatestCopy event = new LatestCopy();
+            event.begin();
+
+            return event;
+        }
+
+        /**
+         * Method to stop timing the event and commit it, if it is being recorded.
+         *
+         * @param latestFileCount  number of latest versions
+         * @param copiedFileCount  number of files copied to the latest versions subdirectory
+         * @param deletedFileCount number of files deleted from the latest versions subdirectory
+         */
+        public void complete(int latestFileCount, int copiedFileCount, int deletedFileCount)
+        {
+            end();
+
+            if (shouldCommit())
+            {
+                this.latestFileCount = latestFileCount;
+                this.copiedFileCount = copiedFileCount;
+                this.deletedFileCount = deletedFileCount;
+
+                commit();
+            }
+        }
+    }
+}
@@ -1,9 +1,21 @@
 import org.apache.commons.text.WordUtils;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -32,10 +44,55 @@ public class OpenApiYamlFile
     public static final String titleSuffix = " API";
 
     public static final String urlPrefix = "- url: https://";
-    public static final String urlRegex = "(?<=- url: https://).+(?=/v\\d+)";
+
+    // whitespace removed from the title when deriving the base URL variable
+    private static final Pattern WHITESPACE = Pattern.compile("\\s");
 
     public static final String versionPrefix = "  version: ";
 
+    // version of the edits applied by this class - increment whenever the output for a given input changes
+    public static final int TRANSFORMATION_RULES_VERSION = 2;
+
+    // files of at least this size are memory-mapped by the bytes engine rather than read onto the heap
+    public static final long DEFAULT_MEMORY_MAP_THRESHOLD = 8 * 1024 * 1024;
+
+    // stateless transformer shared by all files using the streaming engine
+    private static final OpenApiYamlStreamTransformer STREAM_TRANSFORMER = new OpenApiYamlStreamTransformer();
+
+    // endregion
+
+    // region ENUMS
+
+    /**
+     * Engines available for applying edits to a file.
+     */
+    public enum EditEngine
+    {
+        // load the whole file as a list of lines and apply each edit in turn
+        LINES,
+
+        // apply all edits in a single forward pass, writing output as each line is read
+        STREAMING,
+
+        // load the whole file as bytes with a line offset index and record edits as byte range replacements
+        BYTES
+    }
+
+    /**
+     * Outcomes of replacing the hard-coded host in the base URL with a variable.
+     */
+    public enum BaseUrlOutcome
+    {
+        // host replaced with a variable
+        AMENDED,
+
+        // no URL line found - expected for notification and webhook definitions
+        NO_URL_LINE,
+
+        // URL line found, but without a host followed by a version segment such as /v1
+        NO_VERSION_SEGMENT
+    }
+
     // endregion
 
 
@@ -47,18 +104,74 @@ public class OpenApiYamlFile
     // path to output directory
     private final Path pathToOutputFile;
 
+    // path to additional copy of output file, or null if no copy is required
+    private Path pathToCopyOfOutputFile;
+
+    // how the additional copy of the output file is published
+    private OpenApiYamlOutputFile.CopyMode copyMode = OpenApiYamlOutputFile.CopyMode.COPY;
+
+    // engine used by amendAndSave
+    private final EditEngine editEngine;
+
+    // minimum file size in bytes at which the bytes engine memory-maps the input file
+    private long memoryMapThreshold = DEFAULT_MEMORY_MAP_THRESHOLD;
+
+    // policy for flushing the output file to storage
+    private OpenApiYamlOutputSync outputSync = new OpenApiYamlOutputSync(OpenApiYamlOutputSync.FsyncPolicy.NONE);
+
     // list of lines within YAML files
     private List<String> lines;
 
+    // flag recording whether the last save left an identical existing output file untouched
+    private boolean outputUnchanged;
+
+    // time in nanoseconds spent reading, editing and writing the file
+    private long readNanos;
+    private long editNanos;
+    private long writeNanos;
+
+    // size in bytes of the input and output files, and number of lines in the input file
+    private long inputBytes;
+    private long outputBytes;
+    private long lineCount;
+
+    // number of request-level authentication lines removed from the file
+    private long authenticationLinesRemoved;
+
+    // outcome of adding a variable to the base URL
+    private BaseUrlOutcome baseUrlOutcome;
+
+    // flight recorder event for the file, from the start of reading until the file has been saved
+    private OpenApiYamlEvents.FileProcessed fileEvent;
+
+    // digest of the input content as it is read, or null if the content is not hashed, and the resulting hash
+    private MessageDigest contentDigest;
+    private String contentHash;
+
     // endregion
 
     /**
-     * Public constructor.
+     * Public constructor. Uses the line-based edit engine.
      *
      * @param pathToInputFile Path to YAML file
      */
     public OpenApiYamlFile(Path pathToInputFile, Path pathToOutputDirectory)
     {
+        this(pathToInputFile, pathToOutputDirectory, EditEngine.LINES);
+    }
+
+    /**
+     * Public constructor.
+     *
+     * @param pathToInputFile       Path to YAML file
+     * @param pathToOutputDirectory Path to directory to save amended file to
+     * @param editEngine            EditEngine used by amendAndSave
+     */
+    public OpenApiYamlFile(Path pathToInputFile, Path pathToOutputDirectory, EditEngine editEngine)
+    {
+        // store engine used to apply edits
+        this.editEngine = editEngine;
+
         // store path to input file
         this.pathToInputFile = pathToInputFile;
 
@@ -66,29 +179,455 @@ public class OpenApiYamlFile
         this.pathToOutputFile = pathToOutputDirectory.resolve(pathToInputFile.getFileName());
     }
 
+    /**
+     * Method to set the minimum file size at which the bytes engine memory-maps the input file. Smaller files are read
+     * onto the heap, which is cheaper than setting up a mapping.
+     *
+     * @param memoryMapThreshold long containing file size in bytes
+     */
+    public void setMemoryMapThreshold(long memoryMapThreshold)
+    {
+        this.memoryMapThreshold = memoryMapThreshold;
+    }
+
+    /**
+     * Method to set the policy for flushing the output file to storage.
+     *
+     * @param outputSync OpenApiYamlOutputSync shared by all files in a batch
+     */
+    public void setOutputSync(OpenApiYamlOutputSync outputSync)
+    {
+        this.outputSync = outputSync;
+    }
+
+    /**
+     * Method to request that the input content is hashed as it is read, so that the hash matches exactly the content
+     * the edits were applied to without reading the file a second time.
+     *
+     * @param hashContent boolean to control hashing of the input content
+     * @throws Exception
+     */
+    public void setHashContent(boolean hashContent)
+            throws Exception
+    {
+        this.contentDigest = hashContent ? OpenApiYamlManifest.newDigest() : null;
+    }
+
+    /**
+     * Method to request that a copy of the output file is also saved to another directory, from the same write.
+     *
+     * @param pathToCopyDirectory Path to directory to save copy to, or null for no copy
+     * @param copyMode            CopyMode determining whether the copy duplicates the bytes or links to the output
+     */
+    public void setCopyOutputDirectory(Path pathToCopyDirectory, OpenApiYamlOutputFile.CopyMode copyMode)
+    {
+        this.pathToCopyOfOutputFile = pathToCopyDirectory == null
+                ? null
+                : pathToCopyDirectory.resolve(this.pathToOutputFile.getFileName());
+        this.copyMode = copyMode;
+    }
+
     /**
      * Method to amend and save file.
      */
     public void amendAndSave()
             throws Exception
     {
+        if (this.editEngine == EditEngine.STREAMING)
+        {
+            this.fileEvent = OpenApiYamlEvents.FileProcessed.start();
+            amendAndSaveStreaming();
+            this.fileEvent.complete(this);
+            return;
+        }
+
+        if (this.editEngine == EditEngine.BYTES)
+        {
+            this.fileEvent = OpenApiYamlEvents.FileProcessed.start();
+            amendAndSaveBytes();
+            this.fileEvent.complete(this);
+            return;
+        }
+
+        read();
+        amend();
+        save();
+    }
+
+    /**
+     * Method to amend and save file in a single pass without holding its content in memory. As reading, editing and
+     * writing are interleaved, the whole pass is timed as editing; publishing the output is timed as writing.
+     */
+    private void amendAndSaveStreaming()
+            throws Exception
+    {
+        long startNanos = System.nanoTime();
+
+        this.inputBytes = Files.size(this.pathToInputFile);
+
+        try (OpenApiYamlOutputFile output = new OpenApiYamlOutputFile(this.pathToOutputFile, this.outputSync))
+        {
+            OpenApiYamlTransformResult result;
+            OpenApiYamlEvents.EditStep step = OpenApiYamlEvents.EditStep.start();
+
+            try (BufferedReader reader = newInputReader();
+                 BufferedWriter writer = Files.newBufferedWriter(output.getPathToTemporaryFile()))
+            {
+                result = STREAM_TRANSFORMER.transform(reader, writer);
+            }
+
+            step.complete(this.pathToInputFile, "transform");
+
+            completeContentHash();
+
+            this.lineCount = result.getLinesRead();
+            this.authenticationLinesRemoved = result.getAuthenticationLinesRemoved();
+            this.baseUrlOutcome = result.getBaseUrlOutcome();
+            this.outputBytes = Files.size(output.getPathToTemporaryFile());
+
+            long commitNanos = System.nanoTime();
+            this.editNanos = commitNanos - startNanos;
+
+            this.outputUnchanged = !output.commit(this.pathToCopyOfOutputFile, this.copyMode);
+
+            this.writeNanos = System.nanoTime() - commitNanos;
+        }
+    }
+
+    /**
+     * Method to amend and save file using a line offset index over its raw bytes. Files above the memory map threshold
+     * are mapped rather than read onto the heap. Only edited lines are written from memory; all other byte ranges are
+     * transferred directly from the input file. Falls back to the streaming engine for content the index does not
+     * support.
+     */
+    private void amendAndSaveBytes()
+            throws Exception
+    {
+        long startNanos = System.nanoTime();
+
+        try (FileChannel inputChannel = FileChannel.open(this.pathToInputFile, StandardOpenOption.READ))
+        {
+            long size = inputChannel.size();
+            this.inputBytes = size;
+
+            if (size > Integer.MAX_VALUE)
+            {
+                throw new Exception("File is too large to edit using the bytes engine: " + this.pathToInputFile);
+            }
+
+            ByteBuffer content;
+
+            if (size >= this.memoryMapThreshold)
+            {
+                content = inputChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            else
+            {
+                content = ByteBuffer.allocate((int) size);
+
+                while (content.hasRemaining() && inputChannel.read(content) >= 0)
+                {
+                    // keep reading until buffer is full or end of file is reached
+                }
+
+                content.flip();
+            }
+
+            OpenApiYamlLineIndex index = new OpenApiYamlLineIndex(content);
+            this.lineCount = index.getLineCount();
+
+            long editStartNanos = System.nanoTime();
+            this.readNanos = editStartNanos - startNanos;
+
+            if (!index.isSupported())
+            {
+                amendAndSaveStreaming();
+                return;
+            }
+
+            if (this.contentDigest != null)
+            {
+                this.contentDigest.update(content.duplicate());
+                completeContentHash();
+            }
+
+            OpenApiYamlEvents.EditStep step = OpenApiYamlEvents.EditStep.start();
+            index.amend();
+            step.complete(this.pathToInputFile, "amendIndex");
+
+            this.authenticationLinesRemoved = index.getAuthenticationLinesRemoved();
+            this.baseUrlOutcome = index.getBaseUrlOutcome();
+
+            long writeStartNanos = System.nanoTime();
+            this.editNanos = writeStartNanos - editStartNanos;
+
+            try (OpenApiYamlOutputFile output = new OpenApiYamlOutputFile(this.pathToOutputFile, this.outputSync))
+            {
+                step = OpenApiYamlEvents.EditStep.start();
+
+                try (FileChannel outputChannel = FileChannel.open(output.getPathToTemporaryFile(),
+                        StandardOpenOption.WRITE))
+                {
+                    index.writeTo(outputChannel, inputChannel);
+                    this.outputBytes = outputChannel.size();
+                }
+
+                step.complete(this.pathToInputFile, "writeIndex");
+
+                this.outputUnchanged = !output.commit(this.pathToCopyOfOutputFile, this.copyMode);
+            }
+
+            this.writeNanos = System.nanoTime() - writeStartNanos;
+        }
+    }
+
+    /**
+     * Method to read file content into memory. First stage of line-based editing, exposed so that reading can be run
+     * separately from editing and writing.
+     */
+    public void read()
+            throws Exception
+    {
+        this.fileEvent = OpenApiYamlEvents.FileProcessed.start();
+
+        long startNanos = System.nanoTime();
+
+        this.inputBytes = Files.size(this.pathToInputFile);
+
         // get file content as list of strings
-        this.lines = Files.readAllLines(this.pathToInputFile);
+        this.lines = new ArrayList<>();
+
+        try (BufferedReader reader = newInputReader())
+        {
+            String line;
+
+            while ((line = reader.readLine()) != null)
+            {
+                this.lines.add(line);
+            }
+        }
+
+        completeContentHash();
+        this.lineCount = this.lines.size();
+
+        this.readNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Method to open the input file for reading as UTF-8 text, passing its bytes through the content digest if the
+     * content is hashed. Malformed input is reported rather than replaced, as by Files.readAllLines.
+     *
+     * @return BufferedReader over the input file
+     */
+    private BufferedReader newInputReader()
+            throws Exception
+    {
+        InputStream in = Files.newInputStream(this.pathToInputFile);
+
+        if (this.contentDigest != null)
+        {
+            in = new DigestInputStream(in, this.contentDigest);
+        }
+
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8.newDecoder()));
+    }
+
+    /**
+     * Method to complete the hash of the input content once it has all been read, if the content is hashed.
+     */
+    private void completeContentHash()
+    {
+        if (this.contentDigest != null)
+        {
+            this.contentHash = OpenApiYamlManifest.toHex(this.contentDigest.digest());
+        }
+    }
+
+    /**
+     * Method to apply all edits to file content held in memory. Requires read to have been called.
+     */
+    public void amend()
+    {
+        long startNanos = System.nanoTime();
 
         // add variable to base URL
+        OpenApiYamlEvents.EditStep step = OpenApiYamlEvents.EditStep.start();
         addVariableToBaseUrl();
+        step.complete(this.pathToInputFile, "addVariableToBaseUrl");
 
         // remove request-level authentication
+        step = OpenApiYamlEvents.EditStep.start();
         removeRequestLevelAuthentication();
+        step.complete(this.pathToInputFile, "removeRequestLevelAuthentication");
 
         // set default authentication for the collection to use API key
+        step = OpenApiYamlEvents.EditStep.start();
         setDefaultAuthenticationToApiKey();
+        step.complete(this.pathToInputFile, "setDefaultAuthenticationToApiKey");
 
         // update title to add version
+        step = OpenApiYamlEvents.EditStep.start();
         updateCollectionTitleWithVersion();
+        step.complete(this.pathToInputFile, "updateCollectionTitleWithVersion");
+
+        this.editNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Method to write amended file content to the output directory and release it from memory. Requires amend to have
+     * been called.
+     */
+    public void save()
+            throws Exception
+    {
+        long startNanos = System.nanoTime();
 
         // write changes to file
+        OpenApiYamlEvents.EditStep step = OpenApiYamlEvents.EditStep.start();
         writeChangesToFile();
+        step.complete(this.pathToInputFile, "writeChangesToFile");
+
+        // release file content once written
+        this.lines = null;
+
+        this.writeNanos = System.nanoTime() - startNanos;
+
+        // file event is only started if the file was read by this object
+        if (this.fileEvent != null)
+        {
+            this.fileEvent.complete(this);
+            this.fileEvent = null;
+        }
+    }
+
+    /**
+     * Method to get path to input file.
+     *
+     * @return Path to YAML file
+     */
+    public Path getPathToInputFile()
+    {
+        return this.pathToInputFile;
+    }
+
+    /**
+     * Method to get the SHA-256 hash of the input content as last read, if hashing was requested.
+     *
+     * @return String containing hash as lower case hexadecimal, or null if the content was not hashed
+     */
+    public String getContentHash()
+    {
+        return this.contentHash;
+    }
+
+    /**
+     * Method to check whether the last save left an existing output file untouched because its content was identical.
+     *
+     * @return true if the output file was not rewritten
+     */
+    public boolean isOutputUnchanged()
+    {
+        return this.outputUnchanged;
+    }
+
+    /**
+     * Method to get path to output file.
+     *
+     * @return Path to amended YAML file
+     */
+    public Path getPathToOutputFile()
+    {
+        return this.pathToOutputFile;
+    }
+
+    /**
+     * Method to get the engine used to amend and save the file.
+     *
+     * @return EditEngine used by amendAndSave
+     */
+    public EditEngine getEditEngine()
+    {
+        return this.editEngine;
+    }
+
+    /**
+     * Method to get the outcome of adding a variable to the base URL during the last amend.
+     *
+     * @return BaseUrlOutcome, or null if the file has not been amended
+     */
+    public BaseUrlOutcome getBaseUrlOutcome()
+    {
+        return this.baseUrlOutcome;
+    }
+
+    /**
+     * Method to get the number of request-level authentication lines removed from the file during the last amend.
+     *
+     * @return number of lines removed
+     */
+    public long getAuthenticationLinesRemoved()
+    {
+        return this.authenticationLinesRemoved;
+    }
+
+    /**
+     * Method to get the time spent reading the file during the last amend and save.
+     *
+     * @return duration in nanoseconds
+     */
+    public long getReadNanos()
+    {
+        return this.readNanos;
+    }
+
+    /**
+     * Method to get the time spent editing the file during the last amend and save.
+     *
+     * @return duration in nanoseconds
+     */
+    public long getEditNanos()
+    {
+        return this.editNanos;
+    }
+
+    /**
+     * Method to get the time spent writing and publishing the file during the last amend and save.
+     *
+     * @return duration in nanoseconds
+     */
+    public long getWriteNanos()
+    {
+        return this.writeNanos;
+    }
+
+    /**
+     * Method to get the size of the input file as last read.
+     *
+     * @return size in bytes
+     */
+    public long getInputBytes()
+    {
+        return this.inputBytes;
+    }
+
+    /**
+     * Method to get the size of the output file as last written.
+     *
+     * @return size in bytes
+     */
+    public long getOutputBytes()
+    {
+        return this.outputBytes;
+    }
+
+    /**
+     * Method to get the number of lines in the input file as last read.
+     *
+     * @return number of lines
+     */
+    public long getLineCount()
+    {
+        return this.lineCount;
     }
 
     /**
@@ -98,43 +637,118 @@ public class OpenApiYamlFile
     {
         // add variable environment to url property
         // enables use of environment variables to change environment
-        try
+        int titleIndex = -1;
+        int urlIndex = -1;
+
+        // identify first lines containing title and URL for this collection
+        for (int i = 0; i < this.lines.size() && (titleIndex < 0 || urlIndex < 0); i++)
         {
-            // identify line containing title for this collection
-            String title = this.lines.stream()
-                    .filter(line -> line.startsWith(titlePrefix))
-                    .collect(Collectors.toList())
-                    .get(0);
+            String line = this.lines.get(i);
 
-            // remove unwanted elements from the title and convert to lower case
-            title = title.replace(titlePrefix, "").replace(titleAdyen, "").replace(titleSuffix, "").toLowerCase().trim();
+            if (titleIndex < 0 && line.startsWith(titlePrefix))
+            {
+                titleIndex = i;
+            }
+            else if (urlIndex < 0 && line.startsWith(urlPrefix))
+            {
+                urlIndex = i;
+            }
+        }
 
-            // convert to capital case
-            title = WordUtils.capitalize(title);
+        // API definitions for notification services/webhooks do not contain this URL
+        if (urlIndex < 0)
+        {
+            this.baseUrlOutcome = BaseUrlOutcome.NO_URL_LINE;
+            return;
+        }
+
+        // no title line to derive the variable from - the file is rejected when updating the title
+        if (titleIndex < 0)
+        {
+            return;
+        }
 
-            // remove whitespace
-            title = title.replaceAll("\\s","");
+        String urlAmended = amendUrlLine(this.lines.get(urlIndex), this.lines.get(titleIndex));
 
-            // convert to variable by adding remaining elements
-            String variable = "{{env.baseUrl." + title + "}}";
+        if (urlAmended == null)
+        {
+            this.baseUrlOutcome = BaseUrlOutcome.NO_VERSION_SEGMENT;
+            return;
+        }
 
-            // identify line containing URL for this collection
-            String urlOriginal = this.lines.stream()
-                    .filter(line -> line.startsWith(urlPrefix))
-                    .collect(Collectors.toList())
-                    .get(0);
+        // overwrite original line
+        this.lines.set(urlIndex, urlAmended);
+        this.baseUrlOutcome = BaseUrlOutcome.AMENDED;
+    }
 
-            // replace hard-coded value with variable
-            // String urlUpdated = urlOriginal.replace("test", "{{env}}");
-            String urlUpdated = urlOriginal.replaceFirst(urlRegex, variable);
+    /**
+     * Method to replace the hard-coded host in a URL line with a variable derived from the collection title. Shared by
+     * all edit engines.
+     *
+     * @param urlOriginal String containing line starting with the URL prefix
+     * @param title       String containing line starting with the title prefix
+     * @return String containing amended URL line, or null if the URL has no host followed by a version segment
+     */
+    static String amendUrlLine(String urlOriginal, String title)
+    {
+        int hostEnd = findUrlHostEnd(urlOriginal);
 
-            // overwrite original line
-            this.lines.set(this.lines.indexOf(urlOriginal), urlUpdated);
+        if (hostEnd < 0)
+        {
+            return null;
         }
-        catch (Exception ex)
+
+        // remove unwanted elements from the title and convert to lower case
+        title = title.replace(titlePrefix, "").replace(titleAdyen, "").replace(titleSuffix, "").toLowerCase().trim();
+
+        // convert to capital case
+        title = WordUtils.capitalize(title);
+
+        // remove whitespace
+        title = WHITESPACE.matcher(title).replaceAll("");
+
+        // convert to variable by adding remaining elements
+        String variable = "{{env.baseUrl." + title + "}}";
+
+        // replace hard-coded value with variable
+        return urlOriginal.substring(0, urlPrefix.length()) + variable + urlOriginal.substring(hostEnd);
+    }
+
+    /**
+     * Method to find the end of the host in a URL line, in a single pass over the line. The host runs from the end of
+     * the URL prefix up to the last version segment - a slash followed by "v" and a digit - and holds at least one
+     * character. As with a regular expression '.', the host cannot span a line terminator.
+     *
+     * @param urlLine String containing line starting with the URL prefix
+     * @return index of the slash starting the version segment, or -1 if there is none
+     */
+    static int findUrlHostEnd(String urlLine)
+    {
+        if (!urlLine.startsWith(urlPrefix))
+        {
+            return -1;
+        }
+
+        int hostEnd = -1;
+
+        for (int i = urlPrefix.length(); i < urlLine.length(); i++)
         {
-            // suppress exception - API definitions for notification services/webhooks do not contain this URL
+            char c = urlLine.charAt(i);
+
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029')
+            {
+                break;
+            }
+
+            // remember the latest version segment found after the first host character
+            if (c == '/' && i > urlPrefix.length() && i + 2 < urlLine.length() && urlLine.charAt(i + 1) == 'v'
+                    && urlLine.charAt(i + 2) >= '0' && urlLine.charAt(i + 2) <= '9')
+            {
+                hostEnd = i;
+            }
         }
+
+        return hostEnd;
     }
 
     /**
@@ -144,7 +758,9 @@ public class OpenApiYamlFile
     {
         // delete request-specific authentication details
         // ensures Postman defaults each request to inheriting auth from parent
+        int lineCountBefore = this.lines.size();
         this.lines.removeAll(REQUEST_LEVEL_AUTHENTICATION);
+        this.authenticationLinesRemoved = lineCountBefore - this.lines.size();
     }
 
     /**
@@ -171,31 +787,59 @@ public class OpenApiYamlFile
                 .collect(Collectors.toList())
                 .get(0);
 
-        // get version number from line
-        int version = Integer.parseInt(versionLine.split("'")[1]);
-
         // get line containing collection title
         String titleOriginal = this.lines.stream()
                 .filter(line -> line.startsWith(titlePrefix))
                 .collect(Collectors.toList())
                 .get(0);
 
-        // amend title: strip leading "Adyen" if found; strip trailing "API"; prefix with "Adyen OpenAPI"; suffix with version number
-        String titleUpdated = titlePrefix + "OpenAPI - " + titleOriginal.substring(9).replace("Adyen ","").replace(" API","") + " [v" + version + "]";
-
         // overwrite line containing collection title
-        this.lines.set(this.lines.indexOf(titleOriginal), titleUpdated);
+        this.lines.set(this.lines.indexOf(titleOriginal), amendTitleLine(titleOriginal, versionLine));
     }
 
     /**
-     * Method to write changes to the file once completed.
+     * Method to build the amended title line from the original title and version lines. Shared by all edit engines.
+     *
+     * @param titleOriginal String containing line starting with the title prefix
+     * @param versionLine   String containing line starting with the version prefix
+     * @return String containing amended title line
+     */
+    static String amendTitleLine(String titleOriginal, String versionLine)
+    {
+        // get version number from line
+        int version = Integer.parseInt(versionLine.split("'")[1]);
+
+        // amend title: strip leading "Adyen" if found; strip trailing "API"; prefix with "Adyen OpenAPI"; suffix with version number
+        return titlePrefix + "OpenAPI - " + titleOriginal.substring(9).replace("Adyen ","").replace(" API","") + " [v" + version + "]";
+    }
+
+    /**
+     * Method to write changes to the file once completed. The existing file is left untouched if its content is
+     * identical.
      */
     private void writeChangesToFile()
             throws Exception
     {
+        try (OpenApiYamlOutputFile output = new OpenApiYamlOutputFile(this.pathToOutputFile, this.outputSync))
+        {
+            writeLines(output.getPathToTemporaryFile());
+            this.outputBytes = Files.size(output.getPathToTemporaryFile());
+
+            this.outputUnchanged = !output.commit(this.pathToCopyOfOutputFile, this.copyMode);
+        }
+    }
+
+    /**
+     * Method to write each line to a file.
+     *
+     * @param pathToFile Path to file to write lines to
+     */
+    private void writeLines(Path pathToFile)
+            throws Exception
+    {
 
         // create PrintWriter object with automatic closure
-        try (PrintWriter fileWriter = new PrintWriter(Files.newBufferedWriter(this.pathToOutputFile)))
+        try (PrintWriter fileWriter = new PrintWriter(Files.newBufferedWriter(pathToFile)))
         {
             // erase file content
             fileWriter.write("");
@@ -0,0 +1,278 @@
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class finds input files within a directory tree. Candidate files are selected using include and exclude glob
+ * patterns, which are compiled once and matched against each path relative to the root directory. Subdirectories are
+ * searched in parallel, and each matching file is handed to a consumer as soon as it is found rather than being
+ * collected first.
+ */
+public class OpenApiYamlFileFinder
+{
+    // region STATIC VARIABLES
+
+    public static final String DEFAULT_INCLUDE_PATTERN = "**.yaml";
+
+    // endregion
+
+    // region INSTANCE VARIABLES
+
+    // path to directory searched for files
+    private final Path pathToRootDirectory;
+
+    // flag to determine if subdirectories are searched as well as the root directory
+    private final boolean recursive;
+
+    // matchers selecting files to be found, and files or directories to be left out
+    private final List<PathMatcher> includeMatchers = new ArrayList<>();
+    private final List<PathMatcher> excludeMatchers = new ArrayList<>();
+
+    // directories never searched (e.g. an output directory held within the input directory)
+    private final Set<Path> excludedDirectories = ConcurrentHashMap.newKeySet();
+
+    // number of threads searching subdirectories at once
+    private final int parallelism;
+
+    // endregion
+
+    /**
+     * Functional interface for code receiving each file found.
+     */
+    @FunctionalInterface
+    public interface FileConsumer
+    {
+        void accept(Path path)
+                throws Exception;
+    }
+
+    /**
+     * Public constructor. Compiles the supplied glob patterns.
+     *
+     * @param pathToRootDirectory Path to directory searched for files
+     * @param recursive           boolean to control searching of subdirectories
+     * @param includePatterns     List of glob patterns a file's relative path must match at least one of
+     * @param excludePatterns     List of glob patterns excluding any file or directory whose relative path matches
+     * @param parallelism         number of threads searching subdirectories at once
+     */
+    public OpenApiYamlFileFinder(Path pathToRootDirectory, boolean recursive, List<String> includePatterns,
+            List<String> excludePatterns, int parallelism)
+    {
+        this.pathToRootDirectory = pathToRootDirectory;
+        this.recursive = recursive;
+        this.parallelism = parallelism;
+
+        FileSystem fileSystem = pathToRootDirectory.getFileSystem();
+
+        for (String includePattern : includePatterns)
+        {
+            this.includeMatchers.add(fileSystem.getPathMatcher("glob:" + includePattern));
+        }
+
+        for (String excludePattern : excludePatterns)
+        {
+            this.excludeMatchers.add(fileSystem.getPathMatcher("glob:" + excludePattern));
+        }
+    }
+
+    /**
+     * Method to prevent a directory from being searched, along with everything beneath it.
+     *
+     * @param directory Path to directory
+     */
+    public void excludeDirectory(Path directory)
+    {
+        this.excludedDirectories.add(directory.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Method to check whether a file within the root directory would be found by a search, based on its path alone.
+     *
+     * @param path Path to file
+     * @return true if the file matches an include pattern and lies within a directory that would be searched
+     */
+    public boolean matches(Path path)
+    {
+        Path parent = path.getParent();
+        Path relativePath = this.pathToRootDirectory.relativize(path);
+
+        return parent != null && isSearchedDirectory(parent) && !isExcluded(path, relativePath)
+                && isIncluded(relativePath);
+    }
+
+    /**
+     * Method to check whether a directory would be searched, i.e. it is the root directory or a subdirectory reached
+     * without passing through an excluded directory.
+     *
+     * @param directory Path to directory
+     * @return true if the directory would be searched
+     */
+    public boolean isSearchedDirectory(Path directory)
+    {
+        Path relativePath = this.pathToRootDirectory.relativize(directory);
+
+        if (relativePath.toString().isEmpty())
+        {
+            return true;
+        }
+
+        if (!this.recursive || relativePath.startsWith(".."))
+        {
+            return false;
+        }
+
+        // a directory is also excluded if any directory above it is
+        for (Path current = relativePath; current != null; current = current.getParent())
+        {
+            if (isExcluded(this.pathToRootDirectory.resolve(current), current))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Method to search the root directory, passing each matching file to the consumer as it is found. Consumers may be
+     * called from several threads at once. The search stops at the first error raised by a consumer or while listing a
+     * directory, which is then thrown once all threads have stopped.
+     *
+     * @param consumer FileConsumer receiving each file found
+     * @throws Exception
+     */
+    public void find(FileConsumer consumer)
+            throws Exception
+    {
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+
+        try
+        {
+            pool.invoke(new DirectoryScan(this.pathToRootDirectory, consumer, failure));
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+
+        if (failure.get() != null)
+        {
+            throw failure.get();
+        }
+    }
+
+    /**
+     * Method to check whether a relative path matches at least one include pattern.
+     */
+    private boolean isIncluded(Path relativePath)
+    {
+        for (PathMatcher includeMatcher : this.includeMatchers)
+        {
+            if (includeMatcher.matches(relativePath))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Method to check whether a file or directory is excluded, either explicitly or by an exclude pattern.
+     */
+    private boolean isExcluded(Path path, Path relativePath)
+    {
+        if (this.excludedDirectories.contains(path.toAbsolutePath().normalize()))
+        {
+            return true;
+        }
+
+        for (PathMatcher excludeMatcher : this.excludeMatchers)
+        {
+            if (excludeMatcher.matches(relativePath))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * This class represents the search of a single directory. Matching files are passed to the consumer by the thread
+     * listing the directory, and each subdirectory is searched by a task of its own.
+     */
+    private class DirectoryScan
+            extends RecursiveAction
+    {
+        // tasks are never serialized, but RecursiveAction is Serializable
+        private static final long serialVersionUID = 1L;
+
+        private final Path directory;
+        private final FileConsumer consumer;
+        private final AtomicReference<Exception> failure;
+
+        private DirectoryScan(Path directory, FileConsumer consumer, AtomicReference<Exception> failure)
+        {
+            this.directory = directory;
+            this.consumer = consumer;
+            this.failure = failure;
+        }
+
+        @Override
+        protected void compute()
+        {
+            List<DirectoryScan> subdirectoryScans = new ArrayList<>();
+
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(this.directory))
+            {
+                for (Path entry : entries)
+                {
+                    // stop early once any part of the search has failed
+                    if (this.failure.get() != null)
+                    {
+                        return;
+                    }
+
+                    Path relativePath = pathToRootDirectory.relativize(entry);
+
+                    if (isExcluded(entry, relativePath))
+                    {
+                        continue;
+                    }
+
+                    // symbolic links to directories are not followed, so the search cannot loop
+                    if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS))
+                    {
+                        if (recursive)
+                        {
+                            subdirectoryScans.add(new DirectoryScan(entry, this.consumer, this.failure));
+                        }
+                    }
+                    else if (isIncluded(relativePath))
+                    {
+                        this.consumer.accept(entry);
+                    }
+                }
+            }
+            catch (Exception ex)
+            {
+                this.failure.compareAndSet(null, ex);
+                return;
+            }
+
+            invokeAll(subdirectoryScans);
+        }
+    }
+}
@@ -0,0 +1,405 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class serves the OpenApiYamlFile edits over HTTP, so that documents can be transformed on demand without
+ * writing them to disk. A client POSTs a raw OpenAPI YAML document to /transform and receives the amended document in
+ * the response. Request bodies are limited in size, as each is held in memory while it is transformed, and so is the
+ * number of requests handled at once - requests beyond it are refused rather than queued. The server listens on the
+ * loopback interface unless told otherwise. Request counts and volumes are published in Prometheus text format at
+ * /metrics.
+ */
+public class OpenApiYamlHttpServer
+{
+    // region STATIC VARIABLES
+
+    public static final int DEFAULT_PORT = 8080;
+
+    public static final int DEFAULT_MAX_REQUEST_BYTES = 16 * 1024 * 1024;
+
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 64;
+
+    // platform threads kept beyond the concurrent request limit where virtual threads are not supported, so that
+    // requests over the limit are refused at once rather than queued behind those being transformed
+    private static final int REFUSAL_THREADS = 4;
+
+    private static final String TRANSFORM_PATH = "/transform";
+
+    private static final String METRICS_PATH = "/metrics";
+
+    private static final String YAML_CONTENT_TYPE = "application/yaml; charset=utf-8";
+
+    private static final String TEXT_CONTENT_TYPE = "text/plain; charset=utf-8";
+
+    // stateless transformer shared by all requests
+    private static final OpenApiYamlStreamTransformer STREAM_TRANSFORMER = new OpenApiYamlStreamTransformer();
+
+    // endregion
+
+    // region INSTANCE VARIABLES
+
+    // address of the interface to listen on
+    private final InetAddress bindAddress;
+
+    // port to listen on
+    private final int port;
+
+    // maximum size in bytes of a request body
+    private final int maxRequestBytes;
+
+    // maximum number of requests at /transform handled at once
+    private final int maxConcurrentRequests;
+
+    // permits for requests at /transform, bounding the memory held by request bodies
+    private final Semaphore requestPermits;
+
+    // server and the executor running its handlers, while serving
+    private HttpServer server;
+    private ExecutorService executor;
+
+    // request counters published at /metrics
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder failedRequestCount = new LongAdder();
+    private final LongAdder rejectedRequestCount = new LongAdder();
+    private final LongAdder requestBytes = new LongAdder();
+    private final LongAdder responseBytes = new LongAdder();
+    private final LongAdder transformNanos = new LongAdder();
+    private final LongAdder requestsInFlight = new LongAdder();
+
+    // endregion
+
+    /**
+     * Public constructor.
+     *
+     * @param bindAddress           address of the interface to listen on
+     * @param port                  port to listen on
+     * @param maxRequestBytes       maximum size in bytes of a request body
+     * @param maxConcurrentRequests maximum number of documents transformed at once
+     * @throws Exception if a limit is out of range
+     */
+    public OpenApiYamlHttpServer(InetAddress bindAddress, int port, int maxRequestBytes, int maxConcurrentRequests)
+            throws Exception
+    {
+        // one byte beyond the limit is read to detect oversized bodies, so the limit must leave room for it
+        if (maxRequestBytes < 1 || maxRequestBytes == Integer.MAX_VALUE)
+        {
+            throw new Exception("Maximum request size must be between 1 and " + (Integer.MAX_VALUE - 1)
+                    + " bytes. Value supplied was " + maxRequestBytes);
+        }
+
+        if (maxConcurrentRequests < 1)
+        {
+            throw new Exception("Maximum concurrent requests must be greater than zero. Value supplied was "
+                    + maxConcurrentRequests);
+        }
+
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.maxRequestBytes = maxRequestBytes;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.requestPermits = new Semaphore(maxConcurrentRequests);
+    }
+
+    /**
+     * Method to start serving requests, blocking until the JVM is shut down.
+     *
+     * @throws Exception
+     */
+    public void serve()
+            throws Exception
+    {
+        CountDownLatch stopped = new CountDownLatch(1);
+
+        start();
+
+        // let requests in progress complete when the JVM is asked to stop
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            stop(1);
+            stopped.countDown();
+        }));
+
+        stopped.await();
+    }
+
+    /**
+     * Method to start serving requests in the background. Each request is handled on its own virtual thread where the
+     * runtime supports them, or otherwise on a pool a few threads larger than the concurrent request limit.
+     *
+     * @return InetSocketAddress the server is listening on, including the port chosen if port 0 was requested
+     * @throws Exception
+     */
+    public InetSocketAddress start()
+            throws Exception
+    {
+        this.server = HttpServer.create(new InetSocketAddress(this.bindAddress, this.port), 0);
+        this.executor = OpenApiYamlEditorService.newThreadPerTaskExecutor(this.maxConcurrentRequests + REFUSAL_THREADS);
+
+        this.server.createContext(TRANSFORM_PATH, this::handleTransform);
+        this.server.createContext(METRICS_PATH, this::handleMetrics);
+        this.server.setExecutor(this.executor);
+        this.server.start();
+
+        System.out.println("Listening on " + this.bindAddress.getHostAddress() + " port "
+                + this.server.getAddress().getPort());
+
+        return this.server.getAddress();
+    }
+
+    /**
+     * Method to stop serving requests, waiting for those in progress to complete.
+     *
+     * @param delaySeconds maximum time in seconds to wait for requests in progress
+     */
+    public void stop(int delaySeconds)
+    {
+        this.server.stop(delaySeconds);
+        this.executor.shutdown();
+    }
+
+    /**
+     * Method to handle a request to transform a document.
+     */
+    private void handleTransform(HttpExchange exchange)
+    {
+        // contexts match by prefix, so only count requests for the path itself
+        if (rejectUnknownPath(exchange, TRANSFORM_PATH))
+        {
+            return;
+        }
+
+        this.requestCount.increment();
+
+        // refuse rather than queue requests beyond the limit, before any of the body is read
+        boolean permitted = this.requestPermits.tryAcquire();
+
+        // only set once the transformed document has been sent
+        boolean succeeded = false;
+
+        try
+        {
+            if (!permitted)
+            {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendResponse(exchange, 503, TEXT_CONTENT_TYPE,
+                        "Too many documents are being transformed - retry later");
+                return;
+            }
+
+            this.requestsInFlight.increment();
+
+            if (!exchange.getRequestMethod().equals("POST"))
+            {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                sendResponse(exchange, 405, TEXT_CONTENT_TYPE, "Documents must be sent using POST");
+                return;
+            }
+
+            // reject oversized bodies up front where the client declares their size
+            String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+            long declaredBytes;
+
+            try
+            {
+                declaredBytes = contentLength == null ? -1 : Long.parseLong(contentLength.trim());
+            }
+            catch (NumberFormatException ex)
+            {
+                sendResponse(exchange, 400, TEXT_CONTENT_TYPE, "Invalid Content-Length header: " + contentLength);
+                return;
+            }
+
+            if (declaredBytes > this.maxRequestBytes)
+            {
+                rejectTooLarge(exchange);
+                return;
+            }
+
+            byte[] body;
+
+            try (InputStream in = exchange.getRequestBody())
+            {
+                // read one byte beyond the limit to detect oversized bodies sent without a declared size
+                body = in.readNBytes(this.maxRequestBytes + 1);
+            }
+
+            if (body.length > this.maxRequestBytes)
+            {
+                rejectTooLarge(exchange);
+                return;
+            }
+
+            this.requestBytes.add(body.length);
+
+            // transform in memory, so that failures can still be reported with an error status
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length + 256);
+            long startNanos = System.nanoTime();
+
+            try
+            {
+                STREAM_TRANSFORMER.transform(new ByteArrayInputStream(body), out);
+            }
+            catch (CharacterCodingException ex)
+            {
+                sendResponse(exchange, 400, TEXT_CONTENT_TYPE, "Document is not valid UTF-8: " + ex.getMessage());
+                return;
+            }
+            catch (Exception ex)
+            {
+                sendResponse(exchange, 400, TEXT_CONTENT_TYPE, ex.getMessage() != null ? ex.getMessage()
+                        : ex.toString());
+                return;
+            }
+            finally
+            {
+                this.transformNanos.add(System.nanoTime() - startNanos);
+            }
+
+            sendResponse(exchange, 200, YAML_CONTENT_TYPE, out.toByteArray());
+            succeeded = true;
+        }
+        catch (Exception ex)
+        {
+            // suppress exception - client has gone away, or response could not be sent
+        }
+        finally
+        {
+            exchange.close();
+
+            // counted here only, whether answered with an error status or not answered at all
+            if (!succeeded)
+            {
+                this.failedRequestCount.increment();
+            }
+
+            if (permitted)
+            {
+                this.requestsInFlight.decrement();
+                this.requestPermits.release();
+            }
+        }
+    }
+
+    /**
+     * Method to handle a request for metrics, in Prometheus text format.
+     */
+    private void handleMetrics(HttpExchange exchange)
+    {
+        if (rejectUnknownPath(exchange, METRICS_PATH))
+        {
+            return;
+        }
+
+        try
+        {
+            StringBuilder metrics = new StringBuilder();
+
+            OpenApiYamlMetrics.appendMetric(metrics, "openapi_editor_http_requests_total", "counter",
+                    "Requests received at /transform", this.requestCount.sum());
+            OpenApiYamlMetrics.appendMetric(metrics, "openapi_editor_http_requests_failed_total", "counter",
+                    "Requests at /transform answered with an error status or not answered",
+                    this.failedRequestCount.sum());
+            OpenApiYamlMetrics.appendMetric(metrics, "openapi_editor_http_requests_too_large_total", "counter",
+                    "Requests at /transform rejected for exceeding the size limit", this.rejectedRequestCount.sum());
+            OpenApiYamlMetrics.appendMetric(metrics, "openapi_editor_http_request_bytes_total", "counter",
+                    "Document bytes received for transformation", this.requestBytes.sum());
+            OpenApiYamlMetrics.appendMetric(metrics, "openapi_editor_http_response_bytes_total", "counter",
+                    "Transformed document bytes returned", this.responseBytes.sum());
+            OpenApiYamlMetrics.appendMetric(metrics, "openapi_editor_http_transform_seconds_total", "counter",
+                    "Time spent transforming documents", this.transformNanos.sum() / 1e9);
+            OpenApiYamlMetrics.appendMetric(metrics, "openapi_editor_http_requests_in_flight", "gauge",
+                    "Requests at /transform currently being handled", this.requestsInFlight.sum());
+
+            sendResponse(exchange, 200, OpenApiYamlMetrics.CONTENT_TYPE, metrics.toString());
+        }
+        catch (Exception ex)
+        {
+            // suppress exception - client has gone away
+        }
+        finally
+        {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Method to answer 404 to a request for a path that merely starts with the path of the context handling it.
+     *
+     * @return true if the request has been answered
+     */
+    private boolean rejectUnknownPath(HttpExchange exchange, String path)
+    {
+        if (exchange.getRequestURI().getPath().equals(path))
+        {
+            return false;
+        }
+
+        try
+        {
+            sendResponse(exchange, 404, TEXT_CONTENT_TYPE, "Not found: " + exchange.getRequestURI().getPath());
+        }
+        catch (Exception ex)
+        {
+            // suppress exception - client has gone away
+        }
+        finally
+        {
+            exchange.close();
+        }
+
+        return true;
+    }
+
+    /**
+     * Method to reject a request whose body exceeds the size limit.
+     */
+    private void rejectTooLarge(HttpExchange exchange)
+            throws Exception
+    {
+        this.rejectedRequestCount.increment();
+
+        sendResponse(exchange, 413, TEXT_CONTENT_TYPE,
+                "Request body exceeds the limit of " + this.maxRequestBytes + " bytes");
+    }
+
+    /**
+     * Method to send a complete response with a fixed length text body.
+     */
+    private void sendResponse(HttpExchange exchange, int status, String contentType, String body)
+            throws Exception
+    {
+        sendResponse(exchange, status, contentType, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Method to send a complete response with a fixed length body.
+     */
+    private void sendResponse(HttpExchange exchange, int status, String contentType, byte[] bytes)
+            throws Exception
+    {
+        if (status < 400 && exchange.getHttpContext().getPath().equals(TRANSFORM_PATH))
+        {
+            this.responseBytes.add(bytes.length);
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+
+        try (OutputStream out = exchange.getResponseBody())
+        {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class records a distribution of durations in nanoseconds. Values are counted in logarithmic buckets, each
+ * power of two being split into eight, so percentiles are reported to within 12.5% using a fixed amount of memory
+ * however many values are recorded. Recording is lock-free and may be called from any number of threads at once.
+ */
+public class OpenApiYamlLatencyHistogram
+{
+    // region STATIC VARIABLES
+
+    // number of buckets each power of two is split into - must itself be a power of two
+    private static final int SUB_BUCKETS = 8;
+
+    private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+
+    // enough buckets for every non-negative long value
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    // endregion
+
+    // region INSTANCE VARIABLES
+
+    // number of values recorded in each bucket
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    // number, sum and maximum of values recorded
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    // endregion
+
+    /**
+     * Method to record a duration.
+     *
+     * @param nanos duration in nanoseconds - negative values are recorded as zero
+     */
+    public void record(long nanos)
+    {
+        long value = Math.max(0, nanos);
+
+        this.buckets.incrementAndGet(getBucketIndex(value));
+        this.count.increment();
+        this.total.add(value);
+        this.max.accumulate(value);
+    }
+
+    /**
+     * Method to get the number of durations recorded.
+     *
+     * @return number of durations
+     */
+    public long getCount()
+    {
+        return this.count.sum();
+    }
+
+    /**
+     * Method to get the sum of all durations recorded.
+     *
+     * @return total duration in nanoseconds
+     */
+    public long getTotalNanos()
+    {
+        return this.total.sum();
+    }
+
+    /**
+     * Method to get the longest duration recorded.
+     *
+     * @return maximum duration in nanoseconds, or 0 if none have been recorded
+     */
+    public long getMaxNanos()
+    {
+        return this.max.get();
+    }
+
+    /**
+     * Method to get the mean of all durations recorded.
+     *
+     * @return mean duration in nanoseconds, or 0 if none have been recorded
+     */
+    public long getMeanNanos()
+    {
+        long recorded = getCount();
+
+        return recorded == 0 ? 0 : getTotalNanos() / recorded;
+    }
+
+    /**
+     * Method to get an upper bound for the duration below which a given fraction of recorded durations fall. Never
+     * exceeds the longest duration recorded.
+     *
+     * @param fraction fraction of durations, between 0 and 1 (e.g. 0.99 for the 99th percentile)
+     * @return duration in nanoseconds, or 0 if none have been recorded
+     */
+    public long getPercentileNanos(double fraction)
+    {
+        long recorded = 0;
+
+        for (int index = 0; index < BUCKET_COUNT; index++)
+        {
+            recorded += this.buckets.get(index);
+        }
+
+        if (recorded == 0)
+        {
+            return 0;
+        }
+
+        // rank of the value sought, counting from 1
+        long rank = Math.max(1, (long) Math.ceil(fraction * recorded));
+        long seen = 0;
+
+        for (int index = 0; index < BUCKET_COUNT; index++)
+        {
+            seen += this.buckets.get(index);
+
+            if (seen >= rank)
+            {
+                return Math.min(getBucketUpperBound(index), getMaxNanos());
+            }
+        }
+
+        return getMaxNanos();
+    }
+
+    /**
+     * Method to get the index of the bucket counting a value.
+     */
+    private static int getBucketIndex(long value)
+    {
+        // small values are counted exactly
+        if (value < SUB_BUCKETS)
+        {
+            return (int) value;
+        }
+
+        // position of the highest set bit, then the bits following it select the sub-bucket
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Method to get the largest value counted by a bucket.
+     */
+    private static long getBucketUpperBound(int index)
+    {
+        if (index < SUB_BUCKETS)
+        {
+            return index;
+        }
+
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = index % SUB_BUCKETS;
+
+        // the top bucket ends at the largest long value, which the shift below would overflow
+        if (exponent == 62 && subBucket == SUB_BUCKETS - 1)
+        {
+            return Long.MAX_VALUE;
+        }
+
+        return ((SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -0,0 +1,135 @@
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class tracks the latest version of each API collection from a set of file names following the
+ * "{collection}-v{version}.yaml" convention. Each file name is parsed once and compared against the highest version
+ * recorded for its collection, so the latest versions of any number of files are found in a single pass. Safe for use
+ * across threads.
+ */
+public class OpenApiYamlLatestVersions
+{
+    // region STATIC VARIABLES
+
+    // file name split into collection name and version number
+    private static final Pattern VERSIONED_FILE_NAME = Pattern.compile("(.+)-v(\\d{1,9})\\.yaml");
+
+    // endregion
+
+    // region INSTANCE VARIABLES
+
+    // latest file recorded for each collection name
+    private final Map<String, VersionedPath> latestVersions = new ConcurrentHashMap<>();
+
+    // endregion
+
+    /**
+     * Method to record a file, keeping it if it is the highest version seen so far for its collection. Files not
+     * following the naming convention are treated as the only version of a collection named after the file. Files
+     * with equal version numbers, such as "Foo-v1.yaml" and "Foo-v01.yaml", are ranked by file name and then path, so
+     * that the same file is kept whatever order they are found in.
+     *
+     * @param path Path to file
+     * @return true if the file is now the latest version of its collection
+     */
+    public boolean add(Path path)
+    {
+        VersionedPath candidate = new VersionedPath(path);
+
+        return this.latestVersions.merge(candidate.collectionName, candidate,
+                (current, added) -> added.isLaterThan(current) ? added : current) == candidate;
+    }
+
+    /**
+     * Method to check whether a file is the latest version recorded for its collection.
+     *
+     * @param path Path to file
+     * @return true if the file is the latest version recorded
+     */
+    public boolean isLatest(Path path)
+    {
+        VersionedPath latest = this.latestVersions.get(new VersionedPath(path).collectionName);
+
+        return latest != null && latest.path.equals(path);
+    }
+
+    /**
+     * Method to get the latest file recorded for the same collection as a file.
+     *
+     * @param path Path to file
+     * @return Path to latest version recorded for the file's collection, or null if none has been recorded
+     */
+    public Path getLatestPath(Path path)
+    {
+        VersionedPath latest = this.latestVersions.get(new VersionedPath(path).collectionName);
+
+        return latest != null ? latest.path : null;
+    }
+
+    /**
+     * Method to get the latest file recorded for each collection.
+     *
+     * @return Set of paths to latest versions
+     */
+    public Set<Path> getLatestPaths()
+    {
+        Set<Path> latestPaths = new HashSet<>();
+
+        for (VersionedPath versionedPath : this.latestVersions.values())
+        {
+            latestPaths.add(versionedPath.path);
+        }
+
+        return latestPaths;
+    }
+
+    /**
+     * This class represents a file and the collection name and version parsed from its name.
+     */
+    private static class VersionedPath
+    {
+        private final Path path;
+        private final String collectionName;
+        private final int version;
+
+        private VersionedPath(Path path)
+        {
+            String fileName = path.getFileName().toString();
+            Matcher matcher = VERSIONED_FILE_NAME.matcher(fileName);
+
+            this.path = path;
+
+            if (matcher.matches())
+            {
+                this.collectionName = matcher.group(1);
+                this.version = Integer.parseInt(matcher.group(2));
+            }
+            else
+            {
+                this.collectionName = fileName;
+                this.version = 0;
+            }
+        }
+
+        /**
+         * Method to check whether this file ranks above another version of the same collection.
+         */
+        private boolean isLaterThan(VersionedPath other)
+        {
+            if (this.version != other.version)
+            {
+                return this.version > other.version;
+            }
+
+            // equal versions - rank the file name sorting first highest, whatever order the files are found in
+            int fileNameOrder = this.path.getFileName().compareTo(other.path.getFileName());
+
+            return fileNameOrder != 0 ? fileNameOrder < 0 : this.path.compareTo(other.path) < 0;
+        }
+    }
+}
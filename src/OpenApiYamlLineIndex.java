@@ -0,0 +1,485 @@
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class holds the content of a YAML file as a single byte buffer plus the offset at which each line starts. Edits
+ * are recorded as replacements of byte ranges, so only the lines that change are ever decoded or encoded; everything
+ * else is copied straight from the original bytes to the output. The buffer may wrap a heap array or a memory-mapped
+ * file, in which case searches run over the mapped region without copying it onto the heap. Only supports content
+ * using '\n' line terminators. Content must be valid UTF-8, even where it is copied without being decoded, so that
+ * the same inputs are rejected as by the other engines.
+ */
+public class OpenApiYamlLineIndex
+{
+    // region STATIC VARIABLES
+
+    private static final byte LINE_FEED = '\n';
+
+    // number of line starts the index can hold before growing - doubled whenever it fills, rather than guessed from
+    // the content length, so that it only ever grows in proportion to the lines actually found
+    private static final int INITIAL_LINE_CAPACITY = 256;
+
+    // number of characters decoded at a time when checking that content is valid UTF-8
+    private static final int DECODE_BUFFER_CHARS = 8192;
+
+    // byte representations of lines and prefixes matched by the edits
+    private static final List<byte[]> REQUEST_LEVEL_AUTHENTICATION_BYTES = toBytes(
+            OpenApiYamlFile.REQUEST_LEVEL_AUTHENTICATION);
+    private static final List<byte[]> COLLECTION_LEVEL_AUTHENTICATION_API_KEY_BYTES = toBytes(
+            OpenApiYamlFile.COLLECTION_LEVEL_AUTHENTICATION_API_KEY);
+    private static final byte[] TITLE_PREFIX_BYTES = OpenApiYamlFile.titlePrefix.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] VERSION_PREFIX_BYTES = OpenApiYamlFile.versionPrefix.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] URL_PREFIX_BYTES = OpenApiYamlFile.urlPrefix.getBytes(StandardCharsets.UTF_8);
+
+    // endregion
+
+    // region INSTANCE VARIABLES
+
+    // original file content, with position and limit left untouched
+    private final ByteBuffer content;
+
+    // length of the content in bytes
+    private final int length;
+
+    // flag recording whether the content contains carriage returns
+    private final boolean hasCarriageReturn;
+
+    // offset of the first byte of each line, followed by the length of the content
+    private final int[] lineStarts;
+
+    // number of lines in the content
+    private final int lineCount;
+
+    // replacements recorded against the content, in ascending offset order
+    private final List<Replacement> replacements = new ArrayList<>();
+
+    // flag recording whether the last line of the content is removed
+    private boolean lastLineRemoved;
+
+    // number of request-level authentication lines removed
+    private int authenticationLinesRemoved;
+
+    // outcome of adding a variable to the base URL
+    private OpenApiYamlFile.BaseUrlOutcome baseUrlOutcome;
+
+    // flag recording whether collection-level authentication must be added to the bottom of the content
+    private boolean appendCollectionLevelAuthentication;
+
+    // endregion
+
+    /**
+     * Public constructor. Builds the line offset index in a single pass over the content, then checks that the content
+     * is valid UTF-8.
+     *
+     * @param content ByteBuffer containing file content from its position to its limit
+     * @throws CharacterCodingException if the content is not valid UTF-8
+     */
+    public OpenApiYamlLineIndex(ByteBuffer content)
+            throws CharacterCodingException
+    {
+        this.content = content.slice();
+        this.length = this.content.limit();
+
+        int[] starts = new int[INITIAL_LINE_CAPACITY];
+        int count = 0;
+        boolean carriageReturn = false;
+        byte previous = LINE_FEED;
+
+        for (int offset = 0; offset < this.length; offset++)
+        {
+            // record start of a line at the beginning of the content and after each line feed
+            if (previous == LINE_FEED)
+            {
+                if (count + 1 >= starts.length)
+                {
+                    starts = Arrays.copyOf(starts, starts.length * 2);
+                }
+
+                starts[count++] = offset;
+            }
+
+            previous = this.content.get(offset);
+            carriageReturn |= previous == '\r';
+        }
+
+        // terminate index with content length so that the end of every line can be derived
+        if (count + 1 > starts.length)
+        {
+            starts = Arrays.copyOf(starts, count + 1);
+        }
+        starts[count] = this.length;
+
+        this.lineStarts = starts;
+        this.lineCount = count;
+        this.hasCarriageReturn = carriageReturn;
+
+        checkEncoding(this.content);
+    }
+
+    /**
+     * Method to check whether content can be edited using a line index, which requires '\n' line terminators in both
+     * the content and the output.
+     *
+     * @return true if the content can be edited using a line index
+     */
+    public boolean isSupported()
+    {
+        return !this.hasCarriageReturn && "\n".equals(System.lineSeparator());
+    }
+
+    /**
+     * Method to get the number of lines in the content.
+     *
+     * @return number of lines
+     */
+    public int getLineCount()
+    {
+        return this.lineCount;
+    }
+
+    /**
+     * Method to get the number of request-level authentication lines removed by the recorded edits. Requires amend to
+     * have been called.
+     *
+     * @return number of lines removed
+     */
+    public int getAuthenticationLinesRemoved()
+    {
+        return this.authenticationLinesRemoved;
+    }
+
+    /**
+     * Method to get the outcome of adding a variable to the base URL. Requires amend to have been called.
+     *
+     * @return OpenApiYamlFile.BaseUrlOutcome
+     */
+    public OpenApiYamlFile.BaseUrlOutcome getBaseUrlOutcome()
+    {
+        return this.baseUrlOutcome;
+    }
+
+    /**
+     * Method to record all edits as byte range replacements. Matches the edits applied by OpenApiYamlFile.
+     *
+     * @throws Exception if the content does not contain a title and version
+     */
+    public void amend()
+            throws Exception
+    {
+        // first title, version and URL lines found in the content, with replacements for the title and URL
+        int titleLine = -1;
+        int versionLine = -1;
+        int urlLine = -1;
+        Replacement titleReplacement = null;
+        Replacement urlReplacement = null;
+
+        // flags recording whether collection-level authentication is already present
+        boolean hasCollectionSecurity = false;
+        boolean hasCollectionApiKey = false;
+
+        for (int line = 0; line < this.lineCount; line++)
+        {
+            // remove request-level authentication, including line terminator
+            if (lineEqualsAny(line, REQUEST_LEVEL_AUTHENTICATION_BYTES))
+            {
+                this.replacements.add(new Replacement(this.lineStarts[line], this.lineStarts[line + 1]));
+                this.lastLineRemoved = line == this.lineCount - 1;
+                this.authenticationLinesRemoved++;
+                continue;
+            }
+
+            // record collection-level authentication lines
+            if (lineEquals(line, COLLECTION_LEVEL_AUTHENTICATION_API_KEY_BYTES.get(0)))
+            {
+                hasCollectionSecurity = true;
+            }
+            else if (lineEquals(line, COLLECTION_LEVEL_AUTHENTICATION_API_KEY_BYTES.get(1)))
+            {
+                hasCollectionApiKey = true;
+            }
+
+            // record first occurrence of each line needed for amendments
+            if (titleLine < 0 && lineStartsWith(line, TITLE_PREFIX_BYTES))
+            {
+                titleLine = line;
+                titleReplacement = new Replacement(this.lineStarts[line], lineEnd(line));
+                this.replacements.add(titleReplacement);
+            }
+            else if (versionLine < 0 && lineStartsWith(line, VERSION_PREFIX_BYTES))
+            {
+                versionLine = line;
+            }
+            else if (urlLine < 0 && lineStartsWith(line, URL_PREFIX_BYTES))
+            {
+                urlLine = line;
+                urlReplacement = new Replacement(this.lineStarts[line], lineEnd(line));
+                this.replacements.add(urlReplacement);
+            }
+        }
+
+        // title must be amended - fail if the content does not allow it
+        if (titleLine < 0 || versionLine < 0)
+        {
+            throw new Exception("Could not find title and version lines in OpenAPI document");
+        }
+
+        String title = lineAsString(titleLine);
+
+        // fill in replacement text for the title and URL lines
+        titleReplacement.bytes = OpenApiYamlFile.amendTitleLine(title, lineAsString(versionLine))
+                .getBytes(StandardCharsets.UTF_8);
+
+        if (urlReplacement == null)
+        {
+            this.baseUrlOutcome = OpenApiYamlFile.BaseUrlOutcome.NO_URL_LINE;
+        }
+        else
+        {
+            String urlOriginal = lineAsString(urlLine);
+            String urlAmended = OpenApiYamlFile.amendUrlLine(urlOriginal, title);
+
+            // leave URL unchanged if it cannot be amended - matches line-based editing
+            this.baseUrlOutcome = urlAmended == null
+                    ? OpenApiYamlFile.BaseUrlOutcome.NO_VERSION_SEGMENT
+                    : OpenApiYamlFile.BaseUrlOutcome.AMENDED;
+            urlReplacement.bytes = (urlAmended == null ? urlOriginal : urlAmended).getBytes(StandardCharsets.UTF_8);
+        }
+
+        // add collection-level authentication to bottom of content (if not found)
+        this.appendCollectionLevelAuthentication = !hasCollectionSecurity || !hasCollectionApiKey;
+    }
+
+    /**
+     * Method to write the content with all recorded replacements applied. Untouched byte ranges are written directly
+     * from the original content.
+     *
+     * @param out WritableByteChannel receiving the amended content (not closed)
+     */
+    public void writeTo(WritableByteChannel out)
+            throws Exception
+    {
+        writeTo(out, null);
+    }
+
+    /**
+     * Method to write the content with all recorded replacements applied. Untouched byte ranges are transferred from
+     * the source channel the content was read from, allowing the operating system to copy them without passing through
+     * the application; only replacement bytes are written from memory.
+     *
+     * @param out    WritableByteChannel receiving the amended content (not closed)
+     * @param source FileChannel the content was read from, or null to write untouched ranges from memory
+     */
+    public void writeTo(WritableByteChannel out, FileChannel source)
+            throws Exception
+    {
+        int position = 0;
+
+        for (Replacement replacement : this.replacements)
+        {
+            writeRange(out, source, position, replacement.start);
+
+            if (replacement.bytes != null)
+            {
+                writeFully(out, ByteBuffer.wrap(replacement.bytes));
+            }
+
+            position = replacement.end;
+        }
+
+        writeRange(out, source, position, this.length);
+
+        // terminate last line if the content does not end with a line terminator - matches line-based editing
+        if (this.length > 0 && this.content.get(this.length - 1) != LINE_FEED && !this.lastLineRemoved)
+        {
+            writeFully(out, ByteBuffer.wrap(new byte[] {LINE_FEED}));
+        }
+
+        if (this.appendCollectionLevelAuthentication)
+        {
+            String footer = String.join("\n", OpenApiYamlFile.COLLECTION_LEVEL_AUTHENTICATION_API_KEY) + "\n";
+
+            writeFully(out, ByteBuffer.wrap(footer.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    /**
+     * Method to write a range of the original content, transferring it from the source channel where available.
+     */
+    private void writeRange(WritableByteChannel out, FileChannel source, int start, int end)
+            throws Exception
+    {
+        int position = start;
+
+        while (source != null && position < end)
+        {
+            long transferred = source.transferTo(position, end - position, out);
+
+            // stop transferring if the channel makes no progress and write the remainder from memory
+            if (transferred <= 0)
+            {
+                break;
+            }
+
+            position += (int) transferred;
+        }
+
+        if (end > position)
+        {
+            writeFully(out, this.content.duplicate().position(position).limit(end));
+        }
+    }
+
+    /**
+     * Method to write all remaining bytes of a buffer to a channel.
+     */
+    private void writeFully(WritableByteChannel out, ByteBuffer buffer)
+            throws Exception
+    {
+        while (buffer.hasRemaining())
+        {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Method to get offset of the end of a line, excluding its line terminator.
+     */
+    private int lineEnd(int line)
+    {
+        int end = this.lineStarts[line + 1];
+
+        return end > this.lineStarts[line] && this.content.get(end - 1) == LINE_FEED ? end - 1 : end;
+    }
+
+    /**
+     * Method to decode a single line.
+     */
+    private String lineAsString(int line)
+    {
+        int start = this.lineStarts[line];
+        byte[] bytes = new byte[lineEnd(line) - start];
+
+        this.content.duplicate().position(start).get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Method to check whether a line starts with a sequence of bytes.
+     */
+    private boolean lineStartsWith(int line, byte[] prefix)
+    {
+        int start = this.lineStarts[line];
+
+        return lineEnd(line) - start >= prefix.length && rangeEquals(start, prefix);
+    }
+
+    /**
+     * Method to check whether a line is equal to a sequence of bytes.
+     */
+    private boolean lineEquals(int line, byte[] value)
+    {
+        int start = this.lineStarts[line];
+
+        return lineEnd(line) - start == value.length && rangeEquals(start, value);
+    }
+
+    /**
+     * Method to check whether the content starting at an offset matches a sequence of bytes.
+     */
+    private boolean rangeEquals(int start, byte[] value)
+    {
+        for (int i = 0; i < value.length; i++)
+        {
+            if (this.content.get(start + i) != value[i])
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Method to check whether a line is equal to any of a list of byte sequences.
+     */
+    private boolean lineEqualsAny(int line, List<byte[]> values)
+    {
+        for (byte[] value : values)
+        {
+            if (lineEquals(line, value))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Method to check that content is valid UTF-8 by decoding it into a small reusable buffer, throwing the same
+     * exception as a reader would. Decoded characters are discarded.
+     */
+    private static void checkEncoding(ByteBuffer content)
+            throws CharacterCodingException
+    {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        ByteBuffer in = content.duplicate();
+        CharBuffer out = CharBuffer.allocate(DECODE_BUFFER_CHARS);
+        CoderResult result;
+
+        // decode until all input is consumed, emptying the output buffer whenever it fills
+        while ((result = decoder.decode(in, out, true)).isOverflow())
+        {
+            out.clear();
+        }
+
+        if (result.isError())
+        {
+            result.throwException();
+        }
+    }
+
+    /**
+     * Method to encode a list of lines.
+     */
+    private static List<byte[]> toBytes(List<String> lines)
+    {
+        List<byte[]> bytes = new ArrayList<>();
+
+        for (String line : lines)
+        {
+            bytes.add(line.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return bytes;
+    }
+
+    /**
+     * This class represents a byte range of the original content and the bytes that replace it (null to remove).
+     */
+    private static class Replacement
+    {
+        private final int start;
+        private final int end;
+        private byte[] bytes;
+
+        private Replacement(int start, int end)
+        {
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
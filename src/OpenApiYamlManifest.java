@@ -0,0 +1,292 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class records the state of each input file at the time it was last processed, so that later runs can skip
+ * inputs that have not changed. The manifest is stored as a properties file in the output directory, mapping each
+ * input file to its content hash, size, modification time and the version of the transformation rules applied.
+ */
+public class OpenApiYamlManifest
+{
+    // region STATIC VARIABLES
+
+    public static final String MANIFEST_FILE_NAME = "manifest.properties";
+
+    private static final String FIELD_SEPARATOR = ",";
+
+    // endregion
+
+    // region INSTANCE VARIABLES
+
+    // path to manifest file
+    private final Path pathToManifestFile;
+
+    // entries loaded from the manifest file at the start of the run
+    private final Map<String, Entry> previousEntries = new ConcurrentHashMap<>();
+
+    // entries for inputs processed or skipped during this run - checked before those loaded, as watch mode processes
+    // the same input repeatedly within one run
+    private final Map<String, Entry> currentEntries = new ConcurrentHashMap<>();
+
+    // size and modification time of inputs found to have changed, taken before they are read for processing
+    private final Map<String, Entry> changedEntries = new ConcurrentHashMap<>();
+
+    // endregion
+
+    /**
+     * Public constructor. Loads existing entries from the manifest file in the output directory, if one exists.
+     *
+     * @param pathToOutputDirectory Path to output directory holding the manifest file
+     * @throws Exception
+     */
+    public OpenApiYamlManifest(Path pathToOutputDirectory)
+            throws Exception
+    {
+        this.pathToManifestFile = pathToOutputDirectory.resolve(MANIFEST_FILE_NAME);
+
+        if (!Files.exists(this.pathToManifestFile))
+        {
+            return;
+        }
+
+        Properties props = new Properties();
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(this.pathToManifestFile)))
+        {
+            props.load(in);
+        }
+
+        for (String key : props.stringPropertyNames())
+        {
+            Entry entry = Entry.parse(props.getProperty(key));
+
+            // ignore malformed entries - input will be processed again
+            if (entry != null)
+            {
+                this.previousEntries.put(key, entry);
+            }
+        }
+    }
+
+    /**
+     * Method to check whether an input file is unchanged since it was last processed and its output still exists.
+     * Compares size and modification time first, and only hashes the input if its modification time has changed.
+     * Unchanged inputs are carried forward into the manifest saved at the end of the run; the size and modification
+     * time of changed inputs are kept to be recorded once they have been processed.
+     *
+     * @param key             String identifying the input file
+     * @param pathToInputFile Path to input file
+     * @param pathToOutput    Path to output file produced from the input
+     * @return true if the input can be skipped
+     * @throws Exception
+     */
+    public boolean isUnchanged(String key, Path pathToInputFile, Path pathToOutput)
+            throws Exception
+    {
+        long size = Files.size(pathToInputFile);
+        long modified = Files.getLastModifiedTime(pathToInputFile).toMillis();
+
+        // compare against the latest state recorded, which is this run's if the input has already been processed
+        Entry previous = this.currentEntries.get(key);
+
+        if (previous == null)
+        {
+            previous = this.previousEntries.get(key);
+        }
+
+        if (previous == null || previous.rulesVersion != OpenApiYamlFile.TRANSFORMATION_RULES_VERSION
+                || !Files.exists(pathToOutput) || size != previous.size)
+        {
+            return markChanged(key, size, modified);
+        }
+
+        if (modified != previous.modified)
+        {
+            // content may be unchanged despite new modification time (e.g. after a fresh checkout)
+            String hash = hash(pathToInputFile);
+
+            if (!hash.equals(previous.hash))
+            {
+                return markChanged(key, size, modified);
+            }
+
+            previous = new Entry(hash, size, modified, previous.rulesVersion);
+        }
+
+        this.currentEntries.put(key, previous);
+        this.changedEntries.remove(key);
+
+        return true;
+    }
+
+    /**
+     * Method to keep the size and modification time of a changed input until it has been processed.
+     *
+     * @return false, as the input cannot be skipped
+     */
+    private boolean markChanged(String key, long size, long modified)
+    {
+        this.changedEntries.put(key, new Entry(null, size, modified, OpenApiYamlFile.TRANSFORMATION_RULES_VERSION));
+
+        return false;
+    }
+
+    /**
+     * Method to record the state of an input file that has been processed successfully. The hash must be of the
+     * content the edits were applied to; it is recorded with the size and modification time taken when the input was
+     * found to have changed, before it was read, so that an input modified while it was being processed is processed
+     * again next time.
+     *
+     * @param key  String identifying the input file
+     * @param hash String containing SHA-256 hash of the content processed, as lower case hexadecimal
+     * @throws Exception if the input was not checked using isUnchanged before being processed
+     */
+    public void record(String key, String hash)
+            throws Exception
+    {
+        Entry changed = this.changedEntries.remove(key);
+
+        if (changed == null || hash == null)
+        {
+            throw new Exception("Input file was not checked for changes before being processed: " + key);
+        }
+
+        this.currentEntries.put(key, new Entry(hash, changed.size, changed.modified, changed.rulesVersion));
+    }
+
+    /**
+     * Method to save entries recorded during this run, replacing the manifest file. Inputs that were not seen or failed
+     * during this run are dropped, so they will be processed again next time.
+     *
+     * @param outputSync OpenApiYamlOutputSync controlling when the manifest file is flushed to storage
+     * @throws Exception
+     */
+    public void save(OpenApiYamlOutputSync outputSync)
+            throws Exception
+    {
+        Properties props = new Properties();
+
+        for (Map.Entry<String, Entry> entry : this.currentEntries.entrySet())
+        {
+            props.setProperty(entry.getKey(), entry.getValue().toString());
+        }
+
+        // write to temporary file first so an interrupted save never leaves a truncated manifest
+        try (OpenApiYamlOutputFile output = new OpenApiYamlOutputFile(this.pathToManifestFile, outputSync))
+        {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output.getPathToTemporaryFile())))
+            {
+                props.store(out, "AdyenOpenApiEditor manifest - hash,size,modified,rulesVersion per input file");
+            }
+
+            output.commit();
+        }
+    }
+
+    /**
+     * Method to create a digest calculating hashes as recorded in the manifest.
+     *
+     * @return MessageDigest calculating SHA-256 hashes
+     * @throws Exception
+     */
+    static MessageDigest newDigest()
+            throws Exception
+    {
+        return MessageDigest.getInstance("SHA-256");
+    }
+
+    /**
+     * Method to convert a hash to the form recorded in the manifest.
+     *
+     * @param hash byte array containing hash
+     * @return String containing hash as lower case hexadecimal
+     */
+    static String toHex(byte[] hash)
+    {
+        StringBuilder hex = new StringBuilder();
+
+        for (byte b : hash)
+        {
+            hex.append(String.format("%02x", b));
+        }
+
+        return hex.toString();
+    }
+
+    /**
+     * Method to calculate the SHA-256 hash of a file's content.
+     *
+     * @param path Path to file
+     * @return String containing hash as lower case hexadecimal
+     */
+    private static String hash(Path path)
+            throws Exception
+    {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[64 * 1024];
+
+        try (InputStream in = Files.newInputStream(path))
+        {
+            int read;
+
+            while ((read = in.read(buffer)) > 0)
+            {
+                digest.update(buffer, 0, read);
+            }
+        }
+
+        return toHex(digest.digest());
+    }
+
+    /**
+     * This class represents the recorded state of a single input file.
+     */
+    private static class Entry
+    {
+        private final String hash;
+        private final long size;
+        private final long modified;
+        private final int rulesVersion;
+
+        private Entry(String hash, long size, long modified, int rulesVersion)
+        {
+            this.hash = hash;
+            this.size = size;
+            this.modified = modified;
+            this.rulesVersion = rulesVersion;
+        }
+
+        /**
+         * Method to parse an entry from its manifest value, returning null if it is malformed.
+         */
+        private static Entry parse(String value)
+        {
+            String[] fields = value.split(FIELD_SEPARATOR);
+
+            try
+            {
+                return new Entry(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2]),
+                        Integer.parseInt(fields[3]));
+            }
+            catch (Exception ex)
+            {
+                return null;
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.join(FIELD_SEPARATOR, this.hash, String.valueOf(this.size), String.valueOf(this.modified),
+                    String.valueOf(this.rulesVersion));
+        }
+    }
+}
@@ -0,0 +1,289 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class holds counters and phase durations accumulated over every run made by an editor service, for export in
+ * Prometheus text format. The metrics can be saved to a .prom file for the node exporter textfile collector, and
+ * served over HTTP while runs are in progress. Counters are lock-free, so recording from parallel workers adds no
+ * contention.
+ */
+public class OpenApiYamlMetrics
+{
+    // region STATIC VARIABLES
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final String PREFIX = "openapi_editor_";
+
+    // quantiles reported for each phase duration
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    // endregion
+
+    // region INSTANCE VARIABLES
+
+    // file counters
+    private final LongAdder processedFileCount = new LongAdder();
+    private final LongAdder skippedFileCount = new LongAdder();
+    private final LongAdder failedFileCount = new LongAdder();
+
+    // volume counters
+    private final LongAdder inputBytes = new LongAdder();
+    private final LongAdder outputBytes = new LongAdder();
+    private final LongAdder authenticationLinesRemoved = new LongAdder();
+
+    // number of files with each outcome of adding a variable to the base URL
+    private final Map<OpenApiYamlFile.BaseUrlOutcome, LongAdder> baseUrlOutcomes = new EnumMap<>(
+            OpenApiYamlFile.BaseUrlOutcome.class);
+
+    // duration of each phase
+    private final Map<OpenApiYamlRunStatistics.Phase, OpenApiYamlLatencyHistogram> phaseDurations = new EnumMap<>(
+            OpenApiYamlRunStatistics.Phase.class);
+
+    // number of runs completed, and when and how the last of them completed
+    private final LongAdder runCount = new LongAdder();
+    private volatile long lastRunTimestampSeconds;
+    private volatile boolean lastRunSucceeded;
+
+    // endregion
+
+    /**
+     * Public constructor.
+     */
+    public OpenApiYamlMetrics()
+    {
+        for (OpenApiYamlRunStatistics.Phase phase : OpenApiYamlRunStatistics.Phase.values())
+        {
+            this.phaseDurations.put(phase, new OpenApiYamlLatencyHistogram());
+        }
+
+        for (OpenApiYamlFile.BaseUrlOutcome outcome : OpenApiYamlFile.BaseUrlOutcome.values())
+        {
+            this.baseUrlOutcomes.put(outcome, new LongAdder());
+        }
+    }
+
+    /**
+     * Method to record a file that has been amended and saved.
+     *
+     * @param file OpenApiYamlFile that has been saved
+     */
+    public void recordFile(OpenApiYamlFile file)
+    {
+        this.processedFileCount.increment();
+        this.inputBytes.add(file.getInputBytes());
+        this.outputBytes.add(file.getOutputBytes());
+        this.authenticationLinesRemoved.add(file.getAuthenticationLinesRemoved());
+
+        if (file.getBaseUrlOutcome() != null)
+        {
+            this.baseUrlOutcomes.get(file.getBaseUrlOutcome()).increment();
+        }
+
+        recordPhase(OpenApiYamlRunStatistics.Phase.READ, file.getReadNanos());
+        recordPhase(OpenApiYamlRunStatistics.Phase.EDIT, file.getEditNanos());
+        recordPhase(OpenApiYamlRunStatistics.Phase.WRITE, file.getWriteNanos());
+        recordPhase(OpenApiYamlRunStatistics.Phase.FILE,
+                file.getReadNanos() + file.getEditNanos() + file.getWriteNanos());
+    }
+
+    /**
+     * Method to record a file skipped as unchanged since it was last processed.
+     */
+    public void recordSkippedFile()
+    {
+        this.skippedFileCount.increment();
+    }
+
+    /**
+     * Method to record files that could not be processed.
+     *
+     * @param count number of files
+     */
+    public void recordFailedFiles(int count)
+    {
+        this.failedFileCount.add(count);
+    }
+
+    /**
+     * Method to record the duration of a phase.
+     *
+     * @param phase OpenApiYamlRunStatistics.Phase that has completed
+     * @param nanos duration in nanoseconds
+     */
+    public void recordPhase(OpenApiYamlRunStatistics.Phase phase, long nanos)
+    {
+        this.phaseDurations.get(phase).record(nanos);
+    }
+
+    /**
+     * Method to record the completion of a run or batch of files.
+     *
+     * @param succeeded boolean recording whether every file was processed
+     */
+    public void recordRun(boolean succeeded)
+    {
+        this.runCount.increment();
+        this.lastRunSucceeded = succeeded;
+        this.lastRunTimestampSeconds = System.currentTimeMillis() / 1000;
+    }
+
+    /**
+     * Method to render the metrics in Prometheus text format.
+     *
+     * @return String containing metrics
+     */
+    public String toPrometheusText()
+    {
+        StringBuilder metrics = new StringBuilder();
+
+        appendMetric(metrics, PREFIX + "files_processed_total", "counter",
+                "Input files amended and saved", this.processedFileCount.sum());
+        appendMetric(metrics, PREFIX + "files_skipped_total", "counter",
+                "Input files skipped as unchanged since they were last processed", this.skippedFileCount.sum());
+        appendMetric(metrics, PREFIX + "files_failed_total", "counter",
+                "Input files that could not be processed", this.failedFileCount.sum());
+        appendMetric(metrics, PREFIX + "read_bytes_total", "counter",
+                "Bytes read from input files", this.inputBytes.sum());
+        appendMetric(metrics, PREFIX + "written_bytes_total", "counter",
+                "Bytes written to output files", this.outputBytes.sum());
+        appendMetric(metrics, PREFIX + "authentication_lines_removed_total", "counter",
+                "Request-level authentication lines removed from input files", this.authenticationLinesRemoved.sum());
+        appendMetric(metrics, PREFIX + "runs_total", "counter",
+                "Runs and batches of files completed", this.runCount.sum());
+        appendMetric(metrics, PREFIX + "last_run_timestamp_seconds", "gauge",
+                "Time the last run or batch of files completed", this.lastRunTimestampSeconds);
+        appendMetric(metrics, PREFIX + "last_run_success", "gauge",
+                "Whether every file in the last run or batch was processed", this.lastRunSucceeded ? 1 : 0);
+
+        String name = PREFIX + "base_url_files_total";
+
+        metrics.append("# HELP ").append(name).append(" Input files by outcome of adding a variable to the base URL\n");
+        metrics.append("# TYPE ").append(name).append(" counter\n");
+
+        for (Map.Entry<OpenApiYamlFile.BaseUrlOutcome, LongAdder> baseUrlOutcome : this.baseUrlOutcomes.entrySet())
+        {
+            metrics.append(name).append("{outcome=\"").append(baseUrlOutcome.getKey().name().toLowerCase(Locale.ROOT))
+                    .append("\"} ").append(baseUrlOutcome.getValue().sum()).append('\n');
+        }
+
+        name = PREFIX + "phase_duration_seconds";
+
+        metrics.append("# HELP ").append(name).append(" Time spent in each phase of processing\n");
+        metrics.append("# TYPE ").append(name).append(" summary\n");
+
+        for (Map.Entry<OpenApiYamlRunStatistics.Phase, OpenApiYamlLatencyHistogram> phaseDuration
+                : this.phaseDurations.entrySet())
+        {
+            String phase = "phase=\"" + phaseDuration.getKey().getLabel() + "\"";
+            OpenApiYamlLatencyHistogram histogram = phaseDuration.getValue();
+
+            for (double quantile : QUANTILES)
+            {
+                metrics.append(name).append('{').append(phase).append(",quantile=\"").append(quantile).append("\"} ")
+                        .append(histogram.getPercentileNanos(quantile) / 1e9).append('\n');
+            }
+
+            metrics.append(name).append("_sum{").append(phase).append("} ")
+                    .append(histogram.getTotalNanos() / 1e9).append('\n');
+            metrics.append(name).append("_count{").append(phase).append("} ")
+                    .append(histogram.getCount()).append('\n');
+        }
+
+        return metrics.toString();
+    }
+
+    /**
+     * Method to save the metrics to a file in Prometheus text format. The file is replaced atomically, so a collector
+     * reading it never sees partial content.
+     *
+     * @param pathToMetricsFile Path to file to save to, normally ending in .prom
+     * @param outputSync        OpenApiYamlOutputSync controlling when the file is flushed to storage
+     * @throws Exception
+     */
+    public void save(Path pathToMetricsFile, OpenApiYamlOutputSync outputSync)
+            throws Exception
+    {
+        try (OpenApiYamlOutputFile output = new OpenApiYamlOutputFile(pathToMetricsFile, outputSync))
+        {
+            Files.write(output.getPathToTemporaryFile(), toPrometheusText().getBytes(StandardCharsets.UTF_8));
+
+            output.commit();
+        }
+    }
+
+    /**
+     * Method to start serving the metrics at /metrics on the loopback interface.
+     *
+     * @param port port to listen on
+     * @return HttpServer serving the metrics, to be stopped once no longer required
+     * @throws Exception
+     */
+    public HttpServer startServer(int port)
+            throws Exception
+    {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+
+        server.createContext("/metrics", this::handleMetrics);
+        server.start();
+
+        System.out.println("Serving metrics at http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":"
+                + server.getAddress().getPort() + "/metrics");
+
+        return server;
+    }
+
+    /**
+     * Method to handle a request for metrics.
+     */
+    private void handleMetrics(HttpExchange exchange)
+    {
+        try
+        {
+            byte[] bytes = toPrometheusText().getBytes(StandardCharsets.UTF_8);
+
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, bytes.length);
+
+            try (OutputStream out = exchange.getResponseBody())
+            {
+                out.write(bytes);
+            }
+        }
+        catch (Exception ex)
+        {
+            // suppress exception - client has gone away
+        }
+        finally
+        {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Method to append a metric and its metadata in Prometheus text format.
+     *
+     * @param metrics StringBuilder receiving the metric
+     * @param name    String containing metric name
+     * @param type    String containing metric type, e.g. counter or gauge
+     * @param help    String describing the metric
+     * @param value   Number containing metric value
+     */
+    static void appendMetric(StringBuilder metrics, String name, String type, String help, Number value)
+    {
+        metrics.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        metrics.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        metrics.append(name).append(' ').append(value).append('\n');
+    }
+}
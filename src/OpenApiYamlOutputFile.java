@@ -0,0 +1,290 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This class represents an output file while it is being written. Content is written to a temporary file alongside the
+ * target and only replaces the target on commit if it differs from the target's existing content, so outputs that
+ * have not changed keep their modification time and are never rewritten. Changed content is published by atomically
+ * renaming the temporary file over the target, so readers - and the target after a crash - only ever see complete
+ * content.
+ */
+public class OpenApiYamlOutputFile
+        implements AutoCloseable
+{
+    // region STATIC VARIABLES
+
+    private static final int COMPARE_BUFFER_SIZE = 64 * 1024;
+
+    // endregion
+
+    // region ENUMS
+
+    /**
+     * Ways of publishing a second target holding the same content as another file.
+     */
+    public enum CopyMode
+    {
+        // duplicate the bytes
+        COPY,
+
+        // create a hard link to the same file
+        HARD_LINK,
+
+        // create a relative symbolic link to the file
+        SYMBOLIC_LINK
+    }
+
+    // endregion
+
+    // region INSTANCE VARIABLES
+
+    // path to file being produced
+    private final Path pathToTargetFile;
+
+    // path to temporary file receiving content
+    private final Path pathToTemporaryFile;
+
+    // policy for flushing published content to storage
+    private final OpenApiYamlOutputSync outputSync;
+
+    // endregion
+
+    /**
+     * Public constructor. Creates an empty temporary file in the same directory as the target.
+     *
+     * @param pathToTargetFile Path to file being produced
+     * @param outputSync       OpenApiYamlOutputSync controlling when published content is flushed to storage
+     * @throws Exception
+     */
+    public OpenApiYamlOutputFile(Path pathToTargetFile, OpenApiYamlOutputSync outputSync)
+            throws Exception
+    {
+        this.pathToTargetFile = pathToTargetFile;
+        this.outputSync = outputSync;
+
+        // leading dot and trailing suffix keep temporary files out of .yaml directory listings
+        // created directly rather than with Files.createTempFile, which restricts permissions to the owner
+        this.pathToTemporaryFile = Files.createFile(pathToTargetFile.toAbsolutePath().resolveSibling(
+                "." + pathToTargetFile.getFileName() + "."
+                        + Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".tmp"));
+    }
+
+    /**
+     * Method to get path to the temporary file that content should be written to.
+     *
+     * @return Path to temporary file
+     */
+    public Path getPathToTemporaryFile()
+    {
+        return this.pathToTemporaryFile;
+    }
+
+    /**
+     * Method to replace the target with the content written to the temporary file, unless the target already holds
+     * identical content. The temporary file must have been closed by the writer before calling this method.
+     *
+     * @return true if the target was replaced, false if it was left untouched
+     * @throws Exception
+     */
+    public boolean commit()
+            throws Exception
+    {
+        return commit(null, CopyMode.COPY);
+    }
+
+    /**
+     * Method to replace the target with the content written to the temporary file, unless the target already holds
+     * identical content, and to publish a copy of the same content to a second target. The temporary file must have
+     * been closed by the writer before calling this method.
+     *
+     * @param pathToCopyTargetFile Path to second file to publish content to, or null for none
+     * @param copyMode             CopyMode used to publish the second file
+     * @return true if the target was replaced, false if it was left untouched
+     * @throws Exception
+     */
+    public boolean commit(Path pathToCopyTargetFile, CopyMode copyMode)
+            throws Exception
+    {
+        // copy bytes from the completed temporary file rather than re-reading the published target
+        if (pathToCopyTargetFile != null && copyMode == CopyMode.COPY)
+        {
+            copy(this.pathToTemporaryFile, pathToCopyTargetFile, CopyMode.COPY, this.outputSync);
+        }
+
+        boolean replaced = !contentEquals(this.pathToTemporaryFile, this.pathToTargetFile);
+
+        if (replaced)
+        {
+            publish(this.pathToTemporaryFile, this.pathToTargetFile, this.outputSync);
+        }
+        else
+        {
+            Files.delete(this.pathToTemporaryFile);
+        }
+
+        // links must point at the published target
+        if (pathToCopyTargetFile != null && copyMode != CopyMode.COPY)
+        {
+            copy(this.pathToTargetFile, pathToCopyTargetFile, copyMode, this.outputSync);
+        }
+
+        return replaced;
+    }
+
+    /**
+     * Method to copy or link a file to a target, publishing it atomically via a temporary file alongside the target.
+     * Falls back to copying if the file system does not support the requested kind of link.
+     *
+     * @param pathToSourceFile Path to file to copy or link to
+     * @param pathToTargetFile Path to file to replace
+     * @param copyMode         CopyMode determining whether the target is a copy or a link
+     * @param outputSync       OpenApiYamlOutputSync controlling when the target is flushed to storage
+     * @throws Exception
+     */
+    public static void copy(Path pathToSourceFile, Path pathToTargetFile, CopyMode copyMode,
+            OpenApiYamlOutputSync outputSync)
+            throws Exception
+    {
+        if (isUpToDate(pathToSourceFile, pathToTargetFile, copyMode))
+        {
+            return;
+        }
+
+        try (OpenApiYamlOutputFile output = new OpenApiYamlOutputFile(pathToTargetFile, outputSync))
+        {
+            if (copyMode == CopyMode.COPY || !createLink(pathToSourceFile, output.pathToTemporaryFile, copyMode))
+            {
+                Files.copy(pathToSourceFile, output.pathToTemporaryFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            publish(output.pathToTemporaryFile, pathToTargetFile, outputSync);
+        }
+    }
+
+    /**
+     * Method to check whether a target already holds a copy of, or the requested link to, a source file, in which
+     * case it is left untouched.
+     */
+    private static boolean isUpToDate(Path pathToSourceFile, Path pathToTargetFile, CopyMode copyMode)
+            throws Exception
+    {
+        if (Files.isSymbolicLink(pathToTargetFile))
+        {
+            return copyMode == CopyMode.SYMBOLIC_LINK && Files.readSymbolicLink(pathToTargetFile).equals(
+                    pathToTargetFile.toAbsolutePath().getParent().relativize(pathToSourceFile.toAbsolutePath()));
+        }
+
+        if (copyMode == CopyMode.HARD_LINK)
+        {
+            return Files.exists(pathToTargetFile) && Files.isSameFile(pathToSourceFile, pathToTargetFile);
+        }
+
+        return copyMode == CopyMode.COPY && contentEquals(pathToSourceFile, pathToTargetFile);
+    }
+
+    /**
+     * Method to replace a temporary file with a link to a source file. Symbolic links are relative, so the output
+     * directory can be moved as a whole.
+     *
+     * @return true if the link was created, false if the file system does not support it
+     */
+    private static boolean createLink(Path pathToSourceFile, Path pathToLink, CopyMode copyMode)
+    {
+        try
+        {
+            // link cannot be created over an existing file
+            Files.delete(pathToLink);
+
+            if (copyMode == CopyMode.HARD_LINK)
+            {
+                Files.createLink(pathToLink, pathToSourceFile);
+            }
+            else
+            {
+                Files.createSymbolicLink(pathToLink,
+                        pathToLink.toAbsolutePath().getParent().relativize(pathToSourceFile.toAbsolutePath()));
+            }
+
+            return true;
+        }
+        catch (UnsupportedOperationException | IOException ex)
+        {
+            // suppress exception - caller falls back to copying
+            return false;
+        }
+    }
+
+    /**
+     * Method to atomically rename a completed temporary file over a target.
+     */
+    private static void publish(Path pathToTemporaryFile, Path pathToTargetFile, OpenApiYamlOutputSync outputSync)
+            throws Exception
+    {
+        outputSync.beforePublish(pathToTemporaryFile);
+
+        try
+        {
+            Files.move(pathToTemporaryFile, pathToTargetFile, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (AtomicMoveNotSupportedException ex)
+        {
+            // fall back to a plain replacement on file systems without atomic rename
+            Files.move(pathToTemporaryFile, pathToTargetFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        outputSync.afterPublish(pathToTargetFile);
+    }
+
+    /**
+     * Method to remove the temporary file if it has not been committed, e.g. because writing failed.
+     */
+    @Override
+    public void close()
+            throws IOException
+    {
+        Files.deleteIfExists(this.pathToTemporaryFile);
+    }
+
+    /**
+     * Method to compare the content of two files, reading both in step and stopping at the first difference.
+     *
+     * @param first  Path to first file
+     * @param second Path to second file, which may not exist
+     * @return true if both files exist and hold identical content
+     */
+    private static boolean contentEquals(Path first, Path second)
+            throws Exception
+    {
+        if (!Files.exists(second) || Files.size(first) != Files.size(second))
+        {
+            return false;
+        }
+
+        byte[] firstBuffer = new byte[COMPARE_BUFFER_SIZE];
+        byte[] secondBuffer = new byte[COMPARE_BUFFER_SIZE];
+
+        try (InputStream firstIn = Files.newInputStream(first);
+             InputStream secondIn = Files.newInputStream(second))
+        {
+            int read;
+
+            while ((read = firstIn.readNBytes(firstBuffer, 0, COMPARE_BUFFER_SIZE)) > 0)
+            {
+                if (secondIn.readNBytes(secondBuffer, 0, read) != read
+                        || !Arrays.equals(firstBuffer, 0, read, secondBuffer, 0, read))
+                {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,150 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class controls when output files are flushed to storage, trading durability for throughput. Output files are
+ * always published by atomically renaming a completed temporary file, so a crash never leaves a half-written output;
+ * this policy decides whether the renamed content is also guaranteed to survive a power loss, and at what cost.
+ */
+public class OpenApiYamlOutputSync
+{
+    // region ENUMS
+
+    /**
+     * Policies available for flushing output files to storage.
+     */
+    public enum FsyncPolicy
+    {
+        // leave flushing to the operating system
+        NONE,
+
+        // flush each output file before it is published, and its directory after
+        FILE,
+
+        // flush all output files published during a batch, and their directories, once the batch completes
+        BATCH
+    }
+
+    // endregion
+
+    // region INSTANCE VARIABLES
+
+    // policy applied to output files
+    private final FsyncPolicy fsyncPolicy;
+
+    // output files published since the last batch sync
+    private final Set<Path> pendingFiles = ConcurrentHashMap.newKeySet();
+
+    // endregion
+
+    /**
+     * Public constructor.
+     *
+     * @param fsyncPolicy FsyncPolicy applied to output files
+     */
+    public OpenApiYamlOutputSync(FsyncPolicy fsyncPolicy)
+    {
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    /**
+     * Method called once a temporary file is complete, before it is renamed over the target.
+     *
+     * @param pathToTemporaryFile Path to completed temporary file
+     * @throws Exception
+     */
+    public void beforePublish(Path pathToTemporaryFile)
+            throws Exception
+    {
+        if (this.fsyncPolicy == FsyncPolicy.FILE)
+        {
+            force(pathToTemporaryFile);
+        }
+    }
+
+    /**
+     * Method called once a temporary file has been renamed over the target.
+     *
+     * @param pathToTargetFile Path to published file
+     * @throws Exception
+     */
+    public void afterPublish(Path pathToTargetFile)
+            throws Exception
+    {
+        if (this.fsyncPolicy == FsyncPolicy.FILE)
+        {
+            forceDirectory(pathToTargetFile.toAbsolutePath().getParent());
+        }
+        else if (this.fsyncPolicy == FsyncPolicy.BATCH)
+        {
+            this.pendingFiles.add(pathToTargetFile);
+        }
+    }
+
+    /**
+     * Method to flush all files published since the last call, followed by each directory containing them. Does
+     * nothing unless the batch policy is in use.
+     *
+     * @throws Exception
+     */
+    public void syncBatch()
+            throws Exception
+    {
+        Set<Path> directories = new HashSet<>();
+
+        for (Path pathToFile : this.pendingFiles)
+        {
+            // a file deleted since it was published has nothing left to flush, but its directory still does
+            try
+            {
+                force(pathToFile);
+            }
+            catch (NoSuchFileException ex)
+            {
+                // suppress exception - file was superseded during the batch
+            }
+
+            directories.add(pathToFile.toAbsolutePath().getParent());
+            this.pendingFiles.remove(pathToFile);
+        }
+
+        for (Path directory : directories)
+        {
+            forceDirectory(directory);
+        }
+    }
+
+    /**
+     * Method to flush a file's content to storage.
+     */
+    private static void force(Path pathToFile)
+            throws Exception
+    {
+        try (FileChannel channel = FileChannel.open(pathToFile, StandardOpenOption.WRITE))
+        {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Method to flush a directory's entries to storage, so that renames within it are durable.
+     */
+    private static void forceDirectory(Path directory)
+            throws Exception
+    {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ))
+        {
+            channel.force(true);
+        }
+        catch (IOException ex)
+        {
+            // suppress exception - some platforms (e.g. Windows) do not support opening directories
+        }
+    }
+}
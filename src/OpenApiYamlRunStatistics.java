@@ -0,0 +1,513 @@
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class collects timings for a run or batch of files: a latency histogram for each phase of processing, the
+ * volume of data read and written, the files that took longest to process, and the files whose base URL could not be
+ * amended. Files may be recorded from any number of threads at once. The statistics can be rendered as a text summary
+ * or as a JSON document.
+ */
+public class OpenApiYamlRunStatistics
+{
+    // region STATIC VARIABLES
+
+    public static final int DEFAULT_SLOWEST_FILE_COUNT = 5;
+
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private static final double BYTES_PER_MB = 1024 * 1024;
+
+    // endregion
+
+    // region ENUMS
+
+    /**
+     * Phases of a run that are timed.
+     */
+    public enum Phase
+    {
+        // searching the input directory, or receiving the list of input files
+        DISCOVERY("discovery"),
+
+        // loading a file's content
+        READ("read"),
+
+        // applying edits to a file's content
+        EDIT("edit"),
+
+        // writing and publishing an amended file
+        WRITE("write"),
+
+        // reading, editing and writing a file
+        FILE("file"),
+
+        // completing the latest versions subdirectory
+        LATEST_COPY("latestCopy");
+
+        private final String label;
+
+        Phase(String label)
+        {
+            this.label = label;
+        }
+
+        /**
+         * Method to get the name of the phase used in reports.
+         *
+         * @return String containing name of phase
+         */
+        public String getLabel()
+        {
+            return this.label;
+        }
+    }
+
+    // endregion
+
+    // region INSTANCE VARIABLES
+
+    // duration of each phase
+    private final Map<Phase, OpenApiYamlLatencyHistogram> histograms = new EnumMap<>(Phase.class);
+
+    // volume of data processed
+    private final LongAdder inputBytes = new LongAdder();
+    private final LongAdder outputBytes = new LongAdder();
+    private final LongAdder lineCount = new LongAdder();
+
+    // number of files with each outcome of adding a variable to the base URL, and the files left unamended
+    private final Map<OpenApiYamlFile.BaseUrlOutcome, LongAdder> baseUrlOutcomes = new EnumMap<>(
+            OpenApiYamlFile.BaseUrlOutcome.class);
+    private final Queue<FileTiming> unamendedBaseUrlFiles = new ConcurrentLinkedQueue<>();
+
+    // number of files to list among the slowest
+    private final int slowestFileCount;
+
+    // slowest files recorded so far, with the fastest of them at the head
+    private final PriorityQueue<FileTiming> slowestFiles = new PriorityQueue<>(
+            Comparator.comparingLong(FileTiming::getTotalNanos));
+
+    // time at which the run started
+    private final long startNanos = System.nanoTime();
+
+    // endregion
+
+    /**
+     * Public constructor. Timing of the run starts when the statistics are created.
+     *
+     * @param slowestFileCount number of files to list among the slowest, or 0 for none
+     */
+    public OpenApiYamlRunStatistics(int slowestFileCount)
+    {
+        this.slowestFileCount = slowestFileCount;
+
+        for (Phase phase : Phase.values())
+        {
+            this.histograms.put(phase, new OpenApiYamlLatencyHistogram());
+        }
+
+        for (OpenApiYamlFile.BaseUrlOutcome outcome : OpenApiYamlFile.BaseUrlOutcome.values())
+        {
+            this.baseUrlOutcomes.put(outcome, new LongAdder());
+        }
+    }
+
+    /**
+     * Method to record the duration of a phase that is not specific to a file.
+     *
+     * @param phase Phase that has completed
+     * @param nanos duration in nanoseconds
+     */
+    public void recordPhase(Phase phase, long nanos)
+    {
+        this.histograms.get(phase).record(nanos);
+    }
+
+    /**
+     * Method to record the timings of a file that has been amended and saved.
+     *
+     * @param file OpenApiYamlFile that has been saved
+     */
+    public void recordFile(OpenApiYamlFile file)
+    {
+        FileTiming timing = new FileTiming(file);
+
+        recordPhase(Phase.READ, timing.readNanos);
+        recordPhase(Phase.EDIT, timing.editNanos);
+        recordPhase(Phase.WRITE, timing.writeNanos);
+        recordPhase(Phase.FILE, timing.getTotalNanos());
+
+        this.inputBytes.add(timing.inputBytes);
+        this.outputBytes.add(timing.outputBytes);
+        this.lineCount.add(timing.lineCount);
+
+        if (timing.baseUrlOutcome != null)
+        {
+            this.baseUrlOutcomes.get(timing.baseUrlOutcome).increment();
+
+            if (timing.baseUrlOutcome != OpenApiYamlFile.BaseUrlOutcome.AMENDED)
+            {
+                this.unamendedBaseUrlFiles.add(timing);
+            }
+        }
+
+        if (this.slowestFileCount <= 0)
+        {
+            return;
+        }
+
+        // keep only the slowest files seen so far
+        synchronized (this.slowestFiles)
+        {
+            this.slowestFiles.add(timing);
+
+            if (this.slowestFiles.size() > this.slowestFileCount)
+            {
+                this.slowestFiles.poll();
+            }
+        }
+    }
+
+    /**
+     * Method to get the latency histogram for a phase.
+     *
+     * @param phase Phase to get histogram for
+     * @return OpenApiYamlLatencyHistogram of durations recorded for the phase
+     */
+    public OpenApiYamlLatencyHistogram getHistogram(Phase phase)
+    {
+        return this.histograms.get(phase);
+    }
+
+    /**
+     * Method to get the number of files recorded.
+     *
+     * @return number of files
+     */
+    public long getFileCount()
+    {
+        return this.histograms.get(Phase.FILE).getCount();
+    }
+
+    /**
+     * Method to get the number of bytes read from input files.
+     *
+     * @return number of bytes
+     */
+    public long getInputBytes()
+    {
+        return this.inputBytes.sum();
+    }
+
+    /**
+     * Method to get the number of bytes written to output files.
+     *
+     * @return number of bytes
+     */
+    public long getOutputBytes()
+    {
+        return this.outputBytes.sum();
+    }
+
+    /**
+     * Method to get the number of lines read from input files.
+     *
+     * @return number of lines
+     */
+    public long getLineCount()
+    {
+        return this.lineCount.sum();
+    }
+
+    /**
+     * Method to get the number of files with an outcome of adding a variable to the base URL.
+     *
+     * @param outcome OpenApiYamlFile.BaseUrlOutcome to count
+     * @return number of files
+     */
+    public long getBaseUrlOutcomeCount(OpenApiYamlFile.BaseUrlOutcome outcome)
+    {
+        return this.baseUrlOutcomes.get(outcome).sum();
+    }
+
+    /**
+     * Method to get the time elapsed since the run started.
+     *
+     * @return elapsed time in nanoseconds
+     */
+    public long getElapsedNanos()
+    {
+        return System.nanoTime() - this.startNanos;
+    }
+
+    /**
+     * Method to get the slowest files recorded, slowest first.
+     *
+     * @return List of file timings
+     */
+    public List<FileTiming> getSlowestFiles()
+    {
+        List<FileTiming> files;
+
+        synchronized (this.slowestFiles)
+        {
+            files = new ArrayList<>(this.slowestFiles);
+        }
+
+        files.sort(Comparator.comparingLong(FileTiming::getTotalNanos).reversed());
+
+        return files;
+    }
+
+    /**
+     * Method to render the statistics as a text summary.
+     *
+     * @return String containing summary, one line per phase and slow file
+     */
+    public String toSummary()
+    {
+        double elapsedSeconds = getElapsedNanos() / 1e9;
+        StringBuilder summary = new StringBuilder();
+
+        summary.append(String.format(Locale.ROOT,
+                "Timed %d file(s) in %.3f s: %.1f MB read, %.1f MB written, %d line(s); %.1f MB/s, %.1f file(s)/s%n",
+                getFileCount(), elapsedSeconds, getInputBytes() / BYTES_PER_MB, getOutputBytes() / BYTES_PER_MB,
+                getLineCount(), getInputBytes() / BYTES_PER_MB / elapsedSeconds, getFileCount() / elapsedSeconds));
+
+        summary.append(String.format(Locale.ROOT, "  %-12s %8s %12s %10s %10s %10s %10s %10s%n", "phase (ms)",
+                "count", "total", "mean", "p50", "p90", "p99", "max"));
+
+        for (Phase phase : Phase.values())
+        {
+            OpenApiYamlLatencyHistogram histogram = this.histograms.get(phase);
+
+            if (histogram.getCount() == 0)
+            {
+                continue;
+            }
+
+            summary.append(String.format(Locale.ROOT, "  %-12s %8d %12.1f %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                    phase.getLabel(), histogram.getCount(), histogram.getTotalNanos() / NANOS_PER_MILLI,
+                    histogram.getMeanNanos() / NANOS_PER_MILLI, histogram.getPercentileNanos(0.5) / NANOS_PER_MILLI,
+                    histogram.getPercentileNanos(0.9) / NANOS_PER_MILLI,
+                    histogram.getPercentileNanos(0.99) / NANOS_PER_MILLI,
+                    histogram.getMaxNanos() / NANOS_PER_MILLI));
+        }
+
+        if (getFileCount() > 0)
+        {
+            summary.append("Base URL:");
+
+            for (OpenApiYamlFile.BaseUrlOutcome outcome : OpenApiYamlFile.BaseUrlOutcome.values())
+            {
+                summary.append(' ').append(outcome.name().toLowerCase(Locale.ROOT)).append('=')
+                        .append(getBaseUrlOutcomeCount(outcome));
+            }
+
+            summary.append(System.lineSeparator());
+        }
+
+        List<FileTiming> files = getSlowestFiles();
+
+        if (!files.isEmpty())
+        {
+            summary.append("Slowest ").append(files.size()).append(" file(s):").append(System.lineSeparator());
+
+            for (FileTiming file : files)
+            {
+                summary.append(String.format(Locale.ROOT,
+                        "  %10.3f ms  %s (%.1f MB, %d line(s); read %.3f, edit %.3f, write %.3f ms)%n",
+                        file.getTotalNanos() / NANOS_PER_MILLI, file.pathToInputFile, file.inputBytes / BYTES_PER_MB,
+                        file.lineCount, file.readNanos / NANOS_PER_MILLI, file.editNanos / NANOS_PER_MILLI,
+                        file.writeNanos / NANOS_PER_MILLI));
+            }
+        }
+
+        return summary.toString();
+    }
+
+    /**
+     * Method to render the statistics as a JSON document. Durations are given in milliseconds.
+     *
+     * @return String containing JSON document
+     */
+    public String toJson()
+    {
+        StringBuilder json = new StringBuilder();
+
+        json.append("{\n");
+        json.append("  \"elapsedMillis\": ").append(toMillis(getElapsedNanos())).append(",\n");
+        json.append("  \"files\": ").append(getFileCount()).append(",\n");
+        json.append("  \"inputBytes\": ").append(getInputBytes()).append(",\n");
+        json.append("  \"outputBytes\": ").append(getOutputBytes()).append(",\n");
+        json.append("  \"lines\": ").append(getLineCount()).append(",\n");
+        json.append("  \"baseUrl\": {");
+
+        String separator = "";
+
+        for (OpenApiYamlFile.BaseUrlOutcome outcome : OpenApiYamlFile.BaseUrlOutcome.values())
+        {
+            json.append(separator).append('"').append(outcome.name().toLowerCase(Locale.ROOT)).append("\": ")
+                    .append(getBaseUrlOutcomeCount(outcome));
+            separator = ", ";
+        }
+
+        json.append("},\n");
+        json.append("  \"unamendedBaseUrlFiles\": [");
+        separator = "\n";
+
+        for (FileTiming file : this.unamendedBaseUrlFiles)
+        {
+            json.append(separator).append("    {\"path\": ");
+            appendJsonString(json, file.pathToInputFile.toString());
+            json.append(", \"outcome\": \"").append(file.baseUrlOutcome.name().toLowerCase(Locale.ROOT))
+                    .append("\"}");
+            separator = ",\n";
+        }
+
+        json.append(separator.equals("\n") ? "],\n" : "\n  ],\n");
+        json.append("  \"phases\": {");
+
+        separator = "\n";
+
+        for (Phase phase : Phase.values())
+        {
+            OpenApiYamlLatencyHistogram histogram = this.histograms.get(phase);
+
+            json.append(separator).append("    \"").append(phase.getLabel()).append("\": {")
+                    .append("\"count\": ").append(histogram.getCount())
+                    .append(", \"totalMillis\": ").append(toMillis(histogram.getTotalNanos()))
+                    .append(", \"meanMillis\": ").append(toMillis(histogram.getMeanNanos()))
+                    .append(", \"p50Millis\": ").append(toMillis(histogram.getPercentileNanos(0.5)))
+                    .append(", \"p90Millis\": ").append(toMillis(histogram.getPercentileNanos(0.9)))
+                    .append(", \"p99Millis\": ").append(toMillis(histogram.getPercentileNanos(0.99)))
+                    .append(", \"maxMillis\": ").append(toMillis(histogram.getMaxNanos()))
+                    .append('}');
+            separator = ",\n";
+        }
+
+        json.append("\n  },\n");
+        json.append("  \"slowestFiles\": [");
+        separator = "\n";
+
+        for (FileTiming file : getSlowestFiles())
+        {
+            json.append(separator).append("    {\"path\": ");
+            appendJsonString(json, file.pathToInputFile.toString());
+            json.append(", \"totalMillis\": ").append(toMillis(file.getTotalNanos()))
+                    .append(", \"readMillis\": ").append(toMillis(file.readNanos))
+                    .append(", \"editMillis\": ").append(toMillis(file.editNanos))
+                    .append(", \"writeMillis\": ").append(toMillis(file.writeNanos))
+                    .append(", \"inputBytes\": ").append(file.inputBytes)
+                    .append(", \"outputBytes\": ").append(file.outputBytes)
+                    .append(", \"lines\": ").append(file.lineCount)
+                    .append('}');
+            separator = ",\n";
+        }
+
+        json.append(separator.equals("\n") ? "]\n" : "\n  ]\n");
+        json.append("}\n");
+
+        return json.toString();
+    }
+
+    /**
+     * Method to format a duration in milliseconds for a JSON document.
+     */
+    private static String toMillis(long nanos)
+    {
+        return String.format(Locale.ROOT, "%.3f", nanos / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Method to append a string to a JSON document as a quoted, escaped value.
+     */
+    private static void appendJsonString(StringBuilder json, String value)
+    {
+        json.append('"');
+
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+
+            if (c == '"' || c == '\\')
+            {
+                json.append('\\').append(c);
+            }
+            else if (c < 0x20)
+            {
+                json.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            }
+            else
+            {
+                json.append(c);
+            }
+        }
+
+        json.append('"');
+    }
+
+    /**
+     * This class holds the timings of a single file, copied from it once it has been saved.
+     */
+    public static class FileTiming
+    {
+        // region INSTANCE VARIABLES
+
+        private final Path pathToInputFile;
+        private final long readNanos;
+        private final long editNanos;
+        private final long writeNanos;
+        private final long inputBytes;
+        private final long outputBytes;
+        private final long lineCount;
+        private final OpenApiYamlFile.BaseUrlOutcome baseUrlOutcome;
+
+        // endregion
+
+        /**
+         * Public constructor.
+         *
+         * @param file OpenApiYamlFile that has been saved
+         */
+        public FileTiming(OpenApiYamlFile file)
+        {
+            this.pathToInputFile = file.getPathToInputFile();
+            this.readNanos = file.getReadNanos();
+            this.editNanos = file.getEditNanos();
+            this.writeNanos = file.getWriteNanos();
+            this.inputBytes = file.getInputBytes();
+            this.outputBytes = file.getOutputBytes();
+            this.lineCount = file.getLineCount();
+            this.baseUrlOutcome = file.getBaseUrlOutcome();
+        }
+
+        /**
+         * Method to get path to input file.
+         *
+         * @return Path to YAML file
+         */
+        public Path getPathToInputFile()
+        {
+            return this.pathToInputFile;
+        }
+
+        /**
+         * Method to get the time spent reading, editing and writing the file.
+         *
+         * @return duration in nanoseconds
+         */
+        public long getTotalNanos()
+        {
+            return this.readNanos + this.editNanos + this.writeNanos;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class applies the same edits as OpenApiYamlFile in a single forward pass over a YAML document, writing output
+ * as it goes rather than holding the whole document in memory. The only lines held back are those between the first
+ * URL or title line and the line it depends on (the title and version respectively), which sit together at the top of
+ * an OpenAPI document. Instances hold no state between calls and may be shared across threads, so a single instance
+ * can be embedded in other applications to transform documents from any source without using files or directories.
+ */
+public class OpenApiYamlStreamTransformer
+{
+    /**
+     * Method to read a UTF-8 encoded YAML document from a stream, amend it and write the result to another stream.
+     * Neither stream is closed.
+     *
+     * @param in  InputStream supplying the original document
+     * @param out OutputStream receiving the amended document (flushed but not closed)
+     * @return OpenApiYamlTransformResult describing the document and the edits applied
+     * @throws Exception if the document does not contain a title and version, or is not valid UTF-8
+     */
+    public OpenApiYamlTransformResult transform(InputStream in, OutputStream out)
+            throws Exception
+    {
+        // report malformed input rather than replacing it, as the file-based engines do
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+
+        return transform(new BufferedReader(new InputStreamReader(in, decoder)),
+                new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Method to read a UTF-8 encoded YAML document from a channel, amend it and write the result to a stream. Neither
+     * the channel nor the stream is closed.
+     *
+     * @param in  ReadableByteChannel supplying the original document
+     * @param out OutputStream receiving the amended document (flushed but not closed)
+     * @return OpenApiYamlTransformResult describing the document and the edits applied
+     * @throws Exception if the document does not contain a title and version
+     */
+    public OpenApiYamlTransformResult transform(ReadableByteChannel in, OutputStream out)
+            throws Exception
+    {
+        return transform(Channels.newInputStream(in), out);
+    }
+
+    /**
+     * Method to read a YAML document line by line, amend it and write the result.
+     *
+     * @param reader BufferedReader supplying the original document
+     * @param writer Writer receiving the amended document (flushed but not closed)
+     * @return OpenApiYamlTransformResult describing the document and the edits applied
+     * @throws Exception if the document does not contain a title and version
+     */
+    public OpenApiYamlTransformResult transform(BufferedReader reader, Writer writer)
+            throws Exception
+    {
+        // first title, version and URL lines found in the document
+        String titleLine = null;
+        String versionLine = null;
+        String urlLine = null;
+
+        // flags recording whether collection-level authentication is already present
+        boolean hasCollectionSecurity = false;
+        boolean hasCollectionApiKey = false;
+
+        // lines held back until the lines they depend on have been read, with positions of lines awaiting amendment
+        List<String> heldLines = new ArrayList<>();
+        int heldTitleIndex = -1;
+        int heldUrlIndex = -1;
+
+        // statistics reported in the result
+        long linesRead = 0;
+        long linesWritten = 0;
+        long authenticationLinesRemoved = 0;
+        OpenApiYamlFile.BaseUrlOutcome baseUrlOutcome = OpenApiYamlFile.BaseUrlOutcome.NO_URL_LINE;
+
+        String line;
+
+        while ((line = reader.readLine()) != null)
+        {
+            linesRead++;
+
+            // remove request-level authentication
+            if (OpenApiYamlFile.REQUEST_LEVEL_AUTHENTICATION.contains(line))
+            {
+                authenticationLinesRemoved++;
+                continue;
+            }
+
+            // record collection-level authentication lines
+            if (line.equals(OpenApiYamlFile.COLLECTION_LEVEL_AUTHENTICATION_API_KEY.get(0)))
+            {
+                hasCollectionSecurity = true;
+            }
+            else if (line.equals(OpenApiYamlFile.COLLECTION_LEVEL_AUTHENTICATION_API_KEY.get(1)))
+            {
+                hasCollectionApiKey = true;
+            }
+
+            // record first occurrence of each line needed for amendments
+            if (titleLine == null && line.startsWith(OpenApiYamlFile.titlePrefix))
+            {
+                titleLine = line;
+                heldTitleIndex = heldLines.size();
+            }
+            else if (versionLine == null && line.startsWith(OpenApiYamlFile.versionPrefix))
+            {
+                versionLine = line;
+            }
+            else if (urlLine == null && line.startsWith(OpenApiYamlFile.urlPrefix))
+            {
+                urlLine = line;
+                heldUrlIndex = heldLines.size();
+            }
+
+            heldLines.add(line);
+
+            // amend URL once title is known
+            if (heldUrlIndex >= 0 && titleLine != null)
+            {
+                String amendedUrlLine = OpenApiYamlFile.amendUrlLine(urlLine, titleLine);
+
+                // leave URL unchanged if it cannot be amended - matches line-based editing
+                if (amendedUrlLine == null)
+                {
+                    baseUrlOutcome = OpenApiYamlFile.BaseUrlOutcome.NO_VERSION_SEGMENT;
+                }
+                else
+                {
+                    baseUrlOutcome = OpenApiYamlFile.BaseUrlOutcome.AMENDED;
+                    heldLines.set(heldUrlIndex, amendedUrlLine);
+                }
+
+                heldUrlIndex = -1;
+            }
+
+            // amend title once version is known
+            if (heldTitleIndex >= 0 && versionLine != null)
+            {
+                heldLines.set(heldTitleIndex, OpenApiYamlFile.amendTitleLine(titleLine, versionLine));
+                heldTitleIndex = -1;
+            }
+
+            // write out held lines once nothing is awaiting amendment
+            if (heldUrlIndex < 0 && heldTitleIndex < 0)
+            {
+                linesWritten += writeLines(heldLines, writer);
+                heldLines.clear();
+            }
+        }
+
+        // title must be amended - fail if the document does not allow it
+        if (titleLine == null || versionLine == null)
+        {
+            throw new Exception("Could not find title and version lines in OpenAPI document");
+        }
+
+        // URL left unamended if the title was never found
+        linesWritten += writeLines(heldLines, writer);
+
+        // add collection-level authentication to bottom of document (if not found)
+        boolean collectionAuthenticationAdded = !hasCollectionSecurity || !hasCollectionApiKey;
+
+        if (collectionAuthenticationAdded)
+        {
+            linesWritten += writeLines(OpenApiYamlFile.COLLECTION_LEVEL_AUTHENTICATION_API_KEY, writer);
+        }
+
+        writer.flush();
+
+        return new OpenApiYamlTransformResult(titleLine.substring(OpenApiYamlFile.titlePrefix.length()),
+                versionLine.substring(OpenApiYamlFile.versionPrefix.length()), linesRead, linesWritten,
+                authenticationLinesRemoved, baseUrlOutcome, collectionAuthenticationAdded);
+    }
+
+    /**
+     * Method to write lines, each followed by the platform line separator.
+     *
+     * @param lines  List of lines to write
+     * @param writer Writer receiving lines
+     * @return number of lines written
+     */
+    private int writeLines(List<String> lines, Writer writer)
+            throws Exception
+    {
+        for (String line : lines)
+        {
+            writer.write(line);
+            writer.write(System.lineSeparator());
+        }
+
+        return lines.size();
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * This class holds the outcome of transforming a single OpenAPI YAML document: the title and version found in it, and
+ * statistics describing the edits applied. Instances are immutable.
+ */
+public class OpenApiYamlTransformResult
+{
+    // region INSTANCE VARIABLES
+
+    // collection title and version as they appear in the original document
+    private final String title;
+    private final String version;
+
+    // number of lines read from the original document and written to the amended document
+    private final long linesRead;
+    private final long linesWritten;
+
+    // number of request-level authentication lines removed
+    private final long authenticationLinesRemoved;
+
+    // outcome of replacing the base URL with a variable
+    private final OpenApiYamlFile.BaseUrlOutcome baseUrlOutcome;
+
+    // flag recording whether collection-level authentication was added
+    private final boolean collectionAuthenticationAdded;
+
+    // endregion
+
+    /**
+     * Public constructor.
+     *
+     * @param title                         String containing title as it appears in the original document
+     * @param version                       String containing version as it appears in the original document
+     * @param linesRead                     number of lines read from the original document
+     * @param linesWritten                  number of lines written to the amended document
+     * @param authenticationLinesRemoved    number of request-level authentication lines removed
+     * @param baseUrlOutcome                OpenApiYamlFile.BaseUrlOutcome of replacing the base URL with a variable
+     * @param collectionAuthenticationAdded boolean recording whether collection-level authentication was added
+     */
+    public OpenApiYamlTransformResult(String title, String version, long linesRead, long linesWritten,
+            long authenticationLinesRemoved, OpenApiYamlFile.BaseUrlOutcome baseUrlOutcome,
+            boolean collectionAuthenticationAdded)
+    {
+        this.title = title;
+        this.version = version;
+        this.linesRead = linesRead;
+        this.linesWritten = linesWritten;
+        this.authenticationLinesRemoved = authenticationLinesRemoved;
+        this.baseUrlOutcome = baseUrlOutcome;
+        this.collectionAuthenticationAdded = collectionAuthenticationAdded;
+    }
+
+    /**
+     * Method to get the collection title as it appears in the original document.
+     *
+     * @return String containing title
+     */
+    public String getTitle()
+    {
+        return this.title;
+    }
+
+    /**
+     * Method to get the collection version as it appears in the original document.
+     *
+     * @return String containing version
+     */
+    public String getVersion()
+    {
+        return this.version;
+    }
+
+    /**
+     * Method to get the number of lines read from the original document.
+     *
+     * @return number of lines read
+     */
+    public long getLinesRead()
+    {
+        return this.linesRead;
+    }
+
+    /**
+     * Method to get the number of lines written to the amended document.
+     *
+     * @return number of lines written
+     */
+    public long getLinesWritten()
+    {
+        return this.linesWritten;
+    }
+
+    /**
+     * Method to get the number of request-level authentication lines removed.
+     *
+     * @return number of lines removed
+     */
+    public long getAuthenticationLinesRemoved()
+    {
+        return this.authenticationLinesRemoved;
+    }
+
+    /**
+     * Method to check whether the base URL was replaced with a variable.
+     *
+     * @return true if the base URL was amended
+     */
+    public boolean isBaseUrlAmended()
+    {
+        return this.baseUrlOutcome == OpenApiYamlFile.BaseUrlOutcome.AMENDED;
+    }
+
+    /**
+     * Method to get the outcome of replacing the base URL with a variable, showing why a URL was left unchanged.
+     *
+     * @return OpenApiYamlFile.BaseUrlOutcome
+     */
+    public OpenApiYamlFile.BaseUrlOutcome getBaseUrlOutcome()
+    {
+        return this.baseUrlOutcome;
+    }
+
+    /**
+     * Method to check whether collection-level authentication was added.
+     *
+     * @return true if collection-level authentication was added
+     */
+    public boolean isCollectionAuthenticationAdded()
+    {
+        return this.collectionAuthenticationAdded;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "title=" + this.title + ", version=" + this.version + ", linesRead=" + this.linesRead
+                + ", linesWritten=" + this.linesWritten + ", authenticationLinesRemoved="
+                + this.authenticationLinesRemoved + ", baseUrlOutcome=" + this.baseUrlOutcome
+                + ", collectionAuthenticationAdded=" + this.collectionAuthenticationAdded;
+    }
+}
@@ -0,0 +1,118 @@
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the stream handling behind the filter and paths modes.
+ */
+public class EditorAppTest
+{
+    // region STATIC VARIABLES
+
+    private static final String SPEC = String.join("\n",
+            "openapi: 3.1.0",
+            "info:",
+            "  title: Adyen Checkout API",
+            "  version: '70'",
+            "servers:",
+            "- url: https://checkout-test.adyen.com/v70",
+            "");
+
+    // endregion
+
+    @Test
+    public void transformsDocumentBetweenStreams()
+            throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+
+        OpenApiYamlTransformResult result = EditorApp.transformStreams(toStream(SPEC), new PrintStream(out));
+        new OpenApiYamlStreamTransformer().transform(toStream(SPEC), expected);
+
+        assertEquals("Adyen Checkout API", result.getTitle());
+        assertArrayEquals(expected.toByteArray(), out.toByteArray());
+    }
+
+    @Test
+    public void failsWhenDocumentCannotBeWritten()
+            throws Exception
+    {
+        // as stdout behaves once the reading end of a pipe has closed
+        OutputStream closedPipe = new OutputStream()
+        {
+            @Override
+            public void write(int b)
+                    throws IOException
+            {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        try
+        {
+            EditorApp.transformStreams(toStream(SPEC), new PrintStream(closedPipe));
+            fail("Failed write was not reported");
+        }
+        catch (Exception ex)
+        {
+            assertEquals("Could not write transformed document to stdout", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void readsPathsSeparatedByNul()
+    {
+        assertPaths("Checkout-v70.yaml\u0000dir with spaces/Payout-v1.yaml\u0000line\nbreak/Recurring-v68.yaml\u0000",
+                "Checkout-v70.yaml", "dir with spaces/Payout-v1.yaml", "line\nbreak/Recurring-v68.yaml");
+
+        // final separator is optional
+        assertPaths("Checkout-v70.yaml\u0000tab\there/Payout-v1.yaml", "Checkout-v70.yaml", "tab\there/Payout-v1.yaml");
+
+        assertPaths("");
+    }
+
+    /**
+     * Method to check the paths read from NUL separated input.
+     */
+    private static void assertPaths(String input, String... expectedPaths)
+    {
+        List<Path> paths = new ArrayList<>();
+
+        for (Iterator<Path> iterator = EditorApp.readPaths(toStream(input)); iterator.hasNext(); )
+        {
+            paths.add(iterator.next());
+        }
+
+        List<Path> expected = new ArrayList<>();
+
+        for (String expectedPath : expectedPaths)
+        {
+            expected.add(Paths.get(expectedPath));
+        }
+
+        assertEquals(expected, paths);
+    }
+
+    /**
+     * Method to supply a string as a UTF-8 encoded stream.
+     */
+    private static ByteArrayInputStream toStream(String content)
+    {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,218 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that every edit engine produces the same output as the line-based engine, and rejects the same inputs.
+ */
+public class OpenApiYamlEditEngineTest
+{
+    // region STATIC VARIABLES
+
+    private static final String SPEC = String.join("\n",
+            "openapi: 3.1.0",
+            "info:",
+            "  title: Adyen Checkout API",
+            "  description: Payments",
+            "  version: '70'",
+            "servers:",
+            "- url: https://checkout-test.adyen.com/v70",
+            "paths:",
+            "  /payments:",
+            "    post:",
+            "      security:",
+            "      - BasicAuth: []",
+            "      - ApiKeyAuth: []",
+            "      summary: Start a transaction \u2013 caf\u00e9",
+            "");
+
+    // engines compared against the line-based engine
+    private static final OpenApiYamlFile.EditEngine[] ENGINES = {
+            OpenApiYamlFile.EditEngine.LINES,
+            OpenApiYamlFile.EditEngine.STREAMING,
+            OpenApiYamlFile.EditEngine.BYTES
+    };
+
+    // endregion
+
+    // region INSTANCE VARIABLES
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // endregion
+
+    @Test
+    public void amendsDocumentWithLineFeeds()
+            throws Exception
+    {
+        byte[] expected = amendAndSave(OpenApiYamlFile.EditEngine.LINES, SPEC);
+
+        assertEquals(String.join("\n",
+                "openapi: 3.1.0",
+                "info:",
+                "  title: OpenAPI - Checkout [v70]",
+                "  description: Payments",
+                "  version: '70'",
+                "servers:",
+                "- url: https://{{env.baseUrl.Checkout}}/v70",
+                "paths:",
+                "  /payments:",
+                "    post:",
+                "      summary: Start a transaction \u2013 caf\u00e9",
+                "security:",
+                "  - ApiKeyAuth: []",
+                ""), new String(expected, StandardCharsets.UTF_8));
+
+        assertEnginesMatch(SPEC);
+    }
+
+    @Test
+    public void amendsDocumentWithCarriageReturns()
+            throws Exception
+    {
+        assertEnginesMatch(SPEC.replace("\n", "\r\n"));
+    }
+
+    @Test
+    public void amendsDocumentWithoutFinalLineTerminator()
+            throws Exception
+    {
+        assertEnginesMatch(SPEC.substring(0, SPEC.length() - 1));
+    }
+
+    @Test
+    public void amendsDocumentEndingWithAuthenticationLine()
+            throws Exception
+    {
+        assertEnginesMatch(SPEC.substring(0, SPEC.indexOf("      summary:")));
+        assertEnginesMatch(SPEC.substring(0, SPEC.indexOf("      summary:") - 1));
+    }
+
+    @Test
+    public void leavesCollectionLevelAuthenticationAndUnversionedUrl()
+            throws Exception
+    {
+        assertEnginesMatch(SPEC.replace("/v70", "/checkout") + "security:\n  - ApiKeyAuth: []\n");
+    }
+
+    @Test
+    public void amendsDocumentWithManyLines()
+            throws Exception
+    {
+        StringBuilder content = new StringBuilder(SPEC);
+
+        // enough lines for the bytes engine to grow its line index several times
+        for (int i = 0; i < 5000; i++)
+        {
+            content.append("  /path").append(i).append(":\n    post:\n      security:\n      - ApiKeyAuth: []\n");
+        }
+
+        assertEnginesMatch(content.toString());
+    }
+
+    @Test
+    public void rejectsMalformedInput()
+            throws Exception
+    {
+        byte[] content = SPEC.getBytes(StandardCharsets.UTF_8);
+        int summary = SPEC.indexOf("summary");
+
+        // bytes that can never appear in UTF-8, in a line that no edit touches
+        content[summary] = (byte) 0xFF;
+        content[summary + 1] = (byte) 0xFE;
+
+        for (OpenApiYamlFile.EditEngine engine : ENGINES)
+        {
+            assertRejected(engine, content, Long.MAX_VALUE);
+        }
+
+        // memory-mapped input
+        assertRejected(OpenApiYamlFile.EditEngine.BYTES, content, 0);
+
+        // sequence truncated at the end of the content
+        byte[] truncated = "\u00e9".getBytes(StandardCharsets.UTF_8);
+        content = (SPEC + "x").getBytes(StandardCharsets.UTF_8);
+        content[content.length - 1] = truncated[0];
+
+        assertRejected(OpenApiYamlFile.EditEngine.BYTES, content, Long.MAX_VALUE);
+        assertRejected(OpenApiYamlFile.EditEngine.LINES, content, Long.MAX_VALUE);
+    }
+
+    /**
+     * Method to check that an engine rejects content as malformed without saving any output.
+     */
+    private void assertRejected(OpenApiYamlFile.EditEngine engine, byte[] content, long memoryMapThreshold)
+            throws Exception
+    {
+        Path pathToOutputDirectory = this.folder.newFolder().toPath();
+
+        try
+        {
+            amendAndSave(engine, content, pathToOutputDirectory, memoryMapThreshold);
+            fail(engine + " engine accepted malformed input");
+        }
+        catch (MalformedInputException ex)
+        {
+            // expected
+        }
+
+        assertFalse(engine + " engine saved output", Files.exists(pathToOutputDirectory.resolve("Checkout-v70.yaml")));
+    }
+
+    /**
+     * Method to check that every engine produces the same output as the line-based engine.
+     */
+    private void assertEnginesMatch(String content)
+            throws Exception
+    {
+        byte[] expected = amendAndSave(OpenApiYamlFile.EditEngine.LINES, content);
+
+        for (OpenApiYamlFile.EditEngine engine : ENGINES)
+        {
+            assertArrayEquals(engine + " engine output differs", expected, amendAndSave(engine, content));
+        }
+
+        // memory-mapped input
+        assertArrayEquals("Memory-mapped BYTES engine output differs", expected, amendAndSave(
+                OpenApiYamlFile.EditEngine.BYTES, content.getBytes(StandardCharsets.UTF_8),
+                this.folder.newFolder().toPath(), 0));
+    }
+
+    /**
+     * Method to amend and save a document using an engine, returning the output.
+     */
+    private byte[] amendAndSave(OpenApiYamlFile.EditEngine engine, String content)
+            throws Exception
+    {
+        return amendAndSave(engine, content.getBytes(StandardCharsets.UTF_8), this.folder.newFolder().toPath(),
+                Long.MAX_VALUE);
+    }
+
+    /**
+     * Method to amend and save a document using an engine, returning the output.
+     */
+    private byte[] amendAndSave(OpenApiYamlFile.EditEngine engine, byte[] content, Path pathToOutputDirectory,
+            long memoryMapThreshold)
+            throws Exception
+    {
+        Path pathToInputFile = this.folder.newFolder().toPath().resolve("Checkout-v70.yaml");
+        Files.write(pathToInputFile, content);
+
+        OpenApiYamlFile file = new OpenApiYamlFile(pathToInputFile, pathToOutputDirectory, engine);
+        file.setMemoryMapThreshold(memoryMapThreshold);
+        file.amendAndSave();
+
+        return Files.readAllBytes(file.getPathToOutputFile());
+    }
+}
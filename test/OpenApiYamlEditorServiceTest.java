@@ -0,0 +1,560 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that each execution mode saves the same outputs and reports files that could not be processed, and that each
+ * run leaves the latest versions subdirectory holding exactly the latest version of each collection.
+ */
+public class OpenApiYamlEditorServiceTest
+{
+    // region STATIC VARIABLES
+
+    // modes processing files concurrently, which report every failed file once all files have been processed
+    private static final OpenApiYamlEditorService.ExecutionMode[] CONCURRENT_MODES = {
+            OpenApiYamlEditorService.ExecutionMode.PARALLEL,
+            OpenApiYamlEditorService.ExecutionMode.VIRTUAL,
+            OpenApiYamlEditorService.ExecutionMode.PIPELINE
+    };
+
+    private static final String BROKEN_FILE_NAME = "Broken-v1.yaml";
+
+    // time without changes after which watch mode processes a burst of changes
+    private static final long DEBOUNCE_MILLIS = 500;
+
+    // time allowed for watch mode to notice and process a change
+    private static final long WATCH_TIMEOUT_MILLIS = 10000;
+
+    // endregion
+
+    // region INSTANCE VARIABLES
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path pathToInputDirectory;
+    private Path pathToOutputDirectory;
+    private Path pathToLatestDirectory;
+
+    // endregion
+
+    @Before
+    public void createDirectories()
+            throws Exception
+    {
+        this.pathToInputDirectory = this.folder.newFolder("in").toPath();
+        this.pathToOutputDirectory = this.folder.newFolder("out").toPath();
+        this.pathToLatestDirectory = this.pathToOutputDirectory.resolve("latest");
+
+        writeInput("Checkout", 69);
+        writeInput("Checkout", 70);
+        writeInput("Payout", 1);
+    }
+
+    @Test
+    public void savesLatestVersionOfEachCollection()
+            throws Exception
+    {
+        newService().run();
+
+        assertLatestFiles("Checkout-v70.yaml", "Payout-v1.yaml");
+    }
+
+    @Test
+    public void removesSupersededAndStaleLatestVersions()
+            throws Exception
+    {
+        newService().run();
+
+        // left behind by an earlier run, or by hand
+        Files.write(this.pathToLatestDirectory.resolve("Checkout-v68.yaml"), new byte[0]);
+        Files.write(this.pathToLatestDirectory.resolve("Removed-v1.yaml"), new byte[0]);
+        Files.write(this.pathToLatestDirectory.resolve("notes.txt"), new byte[0]);
+
+        writeInput("Checkout", 71);
+        newService().run();
+
+        assertLatestFiles("Checkout-v71.yaml", "Payout-v1.yaml", "notes.txt");
+    }
+
+    @Test
+    public void restoresLatestVersionsOfSkippedInputs()
+            throws Exception
+    {
+        OpenApiYamlEditorService service = newService();
+        service.setIncrementalRuns(true);
+        service.run();
+
+        Files.delete(this.pathToLatestDirectory.resolve("Payout-v1.yaml"));
+        service.run();
+
+        assertLatestFiles("Checkout-v70.yaml", "Payout-v1.yaml");
+    }
+
+    @Test
+    public void linksLatestVersionsToOutputs()
+            throws Exception
+    {
+        for (OpenApiYamlOutputFile.CopyMode copyMode : OpenApiYamlOutputFile.CopyMode.values())
+        {
+            OpenApiYamlEditorService service = newService();
+            service.setLatestCopyMode(copyMode);
+            service.setIncrementalRuns(true);
+
+            // once saving latest versions directly, once copying those of skipped inputs
+            service.run();
+            assertLatestFiles("Checkout-v70.yaml", "Payout-v1.yaml");
+
+            service.run();
+            assertLatestFiles("Checkout-v70.yaml", "Payout-v1.yaml");
+
+            if (copyMode == OpenApiYamlOutputFile.CopyMode.SYMBOLIC_LINK)
+            {
+                assertTrue(Files.isSymbolicLink(this.pathToLatestDirectory.resolve("Payout-v1.yaml")));
+            }
+        }
+    }
+
+    @Test
+    public void reportsFileMissingTitleInEachConcurrentMode()
+            throws Exception
+    {
+        assertConcurrentModesMatchSequential("openapi: 3.1.0\ninfo:\n  version: '1'\n"
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void reportsMalformedFileInEachConcurrentMode()
+            throws Exception
+    {
+        assertConcurrentModesMatchSequential(new byte[] {'o', 'p', 'e', 'n', (byte) 0xFF, '\n'});
+    }
+
+    @Test
+    public void boundsOpenFilesInVirtualMode()
+            throws Exception
+    {
+        for (int version = 1; version <= 8; version++)
+        {
+            writeInput("Balance", version);
+        }
+
+        AtomicInteger openFiles = new AtomicInteger();
+        AtomicInteger peakOpenFiles = new AtomicInteger();
+
+        OpenApiYamlEditorService service = new OpenApiYamlEditorService(this.pathToInputDirectory.toString(),
+                this.pathToOutputDirectory.toString(), true)
+        {
+            @Override
+            OpenApiYamlFile newYamlFile(Path yamlFilePath, Path pathToOutputDirectory,
+                    OpenApiYamlFile.EditEngine editEngine)
+            {
+                return new OpenApiYamlFile(yamlFilePath, pathToOutputDirectory, editEngine)
+                {
+                    @Override
+                    public void amendAndSave()
+                            throws Exception
+                    {
+                        peakOpenFiles.accumulateAndGet(openFiles.incrementAndGet(), Math::max);
+
+                        try
+                        {
+                            // hold the file open long enough for others to start if the limit allows
+                            Thread.sleep(50);
+                            super.amendAndSave();
+                        }
+                        finally
+                        {
+                            openFiles.decrementAndGet();
+                        }
+                    }
+                };
+            }
+        };
+
+        service.setExecutionMode(OpenApiYamlEditorService.ExecutionMode.VIRTUAL);
+        service.setMaxOpenFiles(2);
+        service.run();
+
+        assertEquals(2, peakOpenFiles.get());
+        assertEquals(11, listFileNames(this.pathToOutputDirectory.resolve("all")).size());
+    }
+
+    @Test(timeout = 30000)
+    public void abandonsPipelineWhenStageThreadFails()
+            throws Exception
+    {
+        for (int version = 1; version <= 20; version++)
+        {
+            writeInput("Balance", version);
+        }
+
+        OpenApiYamlEditorService service = new OpenApiYamlEditorService(this.pathToInputDirectory.toString(),
+                this.pathToOutputDirectory.toString(), true)
+        {
+            @Override
+            OpenApiYamlFile newYamlFile(Path yamlFilePath, Path pathToOutputDirectory,
+                    OpenApiYamlFile.EditEngine editEngine)
+            {
+                return new OpenApiYamlFile(yamlFilePath, pathToOutputDirectory, editEngine)
+                {
+                    @Override
+                    public void amend()
+                    {
+                        // errors are not recorded against a file, so end the transformer thread
+                        if (yamlFilePath.getFileName().toString().equals("Balance-v3.yaml"))
+                        {
+                            throw new StackOverflowError();
+                        }
+
+                        super.amend();
+                    }
+                };
+            }
+        };
+
+        service.setExecutionMode(OpenApiYamlEditorService.ExecutionMode.PIPELINE);
+        service.setWorkerCount(1);
+        service.setPipelineQueueCapacity(1);
+
+        try
+        {
+            service.run();
+            fail("Pipeline completed despite a failed stage thread");
+        }
+        catch (Exception ex)
+        {
+            assertTrue(ex.getMessage(), ex.getMessage().startsWith("Pipeline stage failed: "));
+            assertTrue(ex.getCause() instanceof StackOverflowError);
+        }
+    }
+
+    @Test
+    public void rejectsPipelineWithOtherEditEngines()
+            throws Exception
+    {
+        for (OpenApiYamlFile.EditEngine editEngine : OpenApiYamlFile.EditEngine.values())
+        {
+            OpenApiYamlEditorService service = newService(this.folder.newFolder().toPath());
+            service.setExecutionMode(OpenApiYamlEditorService.ExecutionMode.PIPELINE);
+            service.setEditEngine(editEngine);
+
+            try
+            {
+                service.run();
+                assertEquals(OpenApiYamlFile.EditEngine.LINES, editEngine);
+            }
+            catch (Exception ex)
+            {
+                assertTrue(ex.getMessage(), ex.getMessage().startsWith("The pipeline execution mode only supports"));
+            }
+        }
+    }
+
+    @Test
+    public void rejectsInputFilesSharingName()
+            throws Exception
+    {
+        Path pathToCopy = this.pathToInputDirectory.resolve("copy").resolve("Payout-v1.yaml");
+        Files.createDirectories(pathToCopy.getParent());
+        Files.copy(this.pathToInputDirectory.resolve("Payout-v1.yaml"), pathToCopy);
+
+        OpenApiYamlEditorService service = newService();
+        service.setRecursiveDiscovery(true);
+
+        try
+        {
+            service.run();
+            fail("Input files sharing a name were both accepted");
+        }
+        catch (Exception ex)
+        {
+            assertTrue(ex.getMessage(), ex.getMessage().startsWith("Input files share the same name"));
+        }
+    }
+
+    @Test
+    public void ignoresOutputDirectoryWithinInputDirectory()
+            throws Exception
+    {
+        Path pathToNestedOutput = this.pathToInputDirectory.resolve("out");
+        Files.createDirectories(pathToNestedOutput);
+
+        OpenApiYamlEditorService service = newService(pathToNestedOutput);
+        service.setRecursiveDiscovery(true);
+
+        // outputs of the first run would be found as inputs sharing names by the second
+        service.run();
+        service.run();
+
+        assertEquals(Set.of("Checkout-v69.yaml", "Checkout-v70.yaml", "Payout-v1.yaml"),
+                listFileNames(pathToNestedOutput.resolve("all")));
+    }
+
+    @Test(timeout = 60000)
+    public void watchesInputDirectoryUntilInterrupted()
+            throws Exception
+    {
+        // number of times each input file has been amended and saved, by file name
+        Map<String, AtomicInteger> saveCounts = new ConcurrentHashMap<>();
+
+        OpenApiYamlEditorService service = new OpenApiYamlEditorService(this.pathToInputDirectory.toString(),
+                this.pathToOutputDirectory.toString(), true)
+        {
+            @Override
+            OpenApiYamlFile newYamlFile(Path yamlFilePath, Path pathToOutputDirectory,
+                    OpenApiYamlFile.EditEngine editEngine)
+            {
+                return new OpenApiYamlFile(yamlFilePath, pathToOutputDirectory, editEngine)
+                {
+                    @Override
+                    public void amendAndSave()
+                            throws Exception
+                    {
+                        super.amendAndSave();
+                        saveCounts.computeIfAbsent(yamlFilePath.getFileName().toString(),
+                                fileName -> new AtomicInteger()).incrementAndGet();
+                    }
+                };
+            }
+        };
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread watchThread = new Thread(() -> {
+            try
+            {
+                service.watch(DEBOUNCE_MILLIS);
+            }
+            catch (InterruptedException ex)
+            {
+                // expected - watching stops when interrupted
+            }
+            catch (Throwable ex)
+            {
+                failure.set(ex);
+            }
+        });
+
+        watchThread.start();
+
+        try
+        {
+            // initial run
+            awaitSaveCount(saveCounts, "Payout-v1.yaml", 1);
+
+            // a new file is processed once its creation has settled
+            writeInput("Checkout", 71);
+            awaitSaveCount(saveCounts, "Checkout-v71.yaml", 1);
+
+            // the superseded latest version is removed once the batch has been saved
+            awaitDeleted(this.pathToLatestDirectory.resolve("Checkout-v70.yaml"));
+            assertLatestFiles("Checkout-v71.yaml", "Payout-v1.yaml");
+
+            // a burst of changes to one file is processed together
+            for (int i = 0; i < 5; i++)
+            {
+                writeInput("Payout", 1);
+                Thread.sleep(20);
+            }
+
+            awaitSaveCount(saveCounts, "Payout-v1.yaml", 2);
+            Thread.sleep(DEBOUNCE_MILLIS * 3);
+
+            assertEquals(2, saveCounts.get("Payout-v1.yaml").get());
+        }
+        finally
+        {
+            watchThread.interrupt();
+            watchThread.join(WATCH_TIMEOUT_MILLIS);
+        }
+
+        assertFalse("Watching did not stop when interrupted", watchThread.isAlive());
+        assertEquals(null, failure.get());
+
+        // nothing is processed once watching has stopped
+        writeInput("Payout", 2);
+        Thread.sleep(DEBOUNCE_MILLIS * 3);
+
+        assertFalse(saveCounts.containsKey("Payout-v2.yaml"));
+    }
+
+    /**
+     * Method to wait until an input file has been saved at least a number of times.
+     */
+    private static void awaitSaveCount(Map<String, AtomicInteger> saveCounts, String fileName, int count)
+            throws Exception
+    {
+        long deadline = System.currentTimeMillis() + WATCH_TIMEOUT_MILLIS;
+
+        while (saveCounts.getOrDefault(fileName, new AtomicInteger()).get() < count)
+        {
+            if (System.currentTimeMillis() > deadline)
+            {
+                fail(fileName + " was not saved " + count + " time(s) within " + WATCH_TIMEOUT_MILLIS + " ms");
+            }
+
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * Method to wait until a file has been deleted.
+     */
+    private static void awaitDeleted(Path path)
+            throws Exception
+    {
+        long deadline = System.currentTimeMillis() + WATCH_TIMEOUT_MILLIS;
+
+        while (Files.exists(path, LinkOption.NOFOLLOW_LINKS))
+        {
+            if (System.currentTimeMillis() > deadline)
+            {
+                fail(path.getFileName() + " was not deleted within " + WATCH_TIMEOUT_MILLIS + " ms");
+            }
+
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * Method to check that each concurrent mode saves the same outputs as a sequential run for every good input, and
+     * reports exactly the broken input as failed.
+     */
+    private void assertConcurrentModesMatchSequential(byte[] brokenContent)
+            throws Exception
+    {
+        Path pathToSequentialOutput = this.folder.newFolder().toPath();
+        newService(pathToSequentialOutput).run();
+
+        Files.write(this.pathToInputDirectory.resolve(BROKEN_FILE_NAME), brokenContent);
+
+        for (OpenApiYamlEditorService.ExecutionMode executionMode : CONCURRENT_MODES)
+        {
+            Path pathToOutputDirectory = this.folder.newFolder().toPath();
+            OpenApiYamlEditorService service = newService(pathToOutputDirectory);
+            service.setExecutionMode(executionMode);
+
+            try
+            {
+                service.run();
+                fail(executionMode + " mode did not report the broken file");
+            }
+            catch (Exception ex)
+            {
+                List<String> lines = Arrays.asList(ex.getMessage().split(System.lineSeparator()));
+
+                assertEquals(executionMode + " mode: " + ex.getMessage(), 2, lines.size());
+                assertEquals("1 file(s) could not be processed:", lines.get(0));
+                assertTrue(executionMode + " mode: " + lines.get(1), lines.get(1).startsWith(BROKEN_FILE_NAME + ": "));
+            }
+
+            Path pathToAllVersions = pathToOutputDirectory.resolve("all");
+            Set<String> fileNames = listFileNames(pathToAllVersions);
+
+            assertFalse(executionMode + " mode saved the broken file", fileNames.contains(BROKEN_FILE_NAME));
+            assertEquals(listFileNames(pathToSequentialOutput.resolve("all")), fileNames);
+
+            for (String fileName : fileNames)
+            {
+                assertArrayEquals(executionMode + " mode: " + fileName,
+                        Files.readAllBytes(pathToSequentialOutput.resolve("all").resolve(fileName)),
+                        Files.readAllBytes(pathToAllVersions.resolve(fileName)));
+            }
+        }
+    }
+
+    /**
+     * Method to create an editor service saving latest versions from the input directory.
+     */
+    private OpenApiYamlEditorService newService()
+            throws Exception
+    {
+        return newService(this.pathToOutputDirectory);
+    }
+
+    /**
+     * Method to create an editor service saving latest versions from the input directory to an output directory.
+     */
+    private OpenApiYamlEditorService newService(Path pathToOutputDirectory)
+            throws Exception
+    {
+        return new OpenApiYamlEditorService(this.pathToInputDirectory.toString(), pathToOutputDirectory.toString(),
+                true);
+    }
+
+    /**
+     * Method to list the names of the files in a directory, in order.
+     */
+    private static Set<String> listFileNames(Path directory)
+            throws Exception
+    {
+        try (Stream<Path> paths = Files.list(directory))
+        {
+            return paths.map(path -> path.getFileName().toString()).collect(Collectors.toCollection(TreeSet::new));
+        }
+    }
+
+    /**
+     * Method to write a minimal OpenAPI document as a version of a collection.
+     */
+    private void writeInput(String collection, int version)
+            throws Exception
+    {
+        String content = String.join("\n",
+                "openapi: 3.1.0",
+                "info:",
+                "  title: Adyen " + collection + " API",
+                "  version: '" + version + "'",
+                "servers:",
+                "- url: https://" + collection.toLowerCase() + "-test.adyen.com/v" + version,
+                "");
+
+        Files.write(this.pathToInputDirectory.resolve(collection + "-v" + version + ".yaml"),
+                content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Method to check the files held by the latest versions subdirectory, and that each YAML file among them matches
+     * its output in the all versions subdirectory.
+     */
+    private void assertLatestFiles(String... expectedFileNames)
+            throws Exception
+    {
+        Set<String> fileNames = listFileNames(this.pathToLatestDirectory);
+
+        assertEquals(new TreeSet<>(Set.of(expectedFileNames)), fileNames);
+
+        for (String fileName : fileNames)
+        {
+            if (fileName.endsWith(".yaml"))
+            {
+                assertArrayEquals(fileName,
+                        Files.readAllBytes(this.pathToOutputDirectory.resolve("all").resolve(fileName)),
+                        Files.readAllBytes(this.pathToLatestDirectory.resolve(fileName)));
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that the file finder searches the expected directories and selects files using include and exclude patterns.
+ */
+public class OpenApiYamlFileFinderTest
+{
+    // region STATIC VARIABLES
+
+    private static final List<String> DEFAULT_INCLUDE = Collections.singletonList(
+            OpenApiYamlFileFinder.DEFAULT_INCLUDE_PATTERN);
+
+    // endregion
+
+    // region INSTANCE VARIABLES
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path pathToRootDirectory;
+
+    // endregion
+
+    @Before
+    public void createTree()
+            throws Exception
+    {
+        this.pathToRootDirectory = this.folder.newFolder("in").toPath();
+
+        for (String file : Arrays.asList("A-v1.yaml", "notes.txt", "sub/B-v1.yaml", "sub/deep/C-v1.yaml",
+                "sub/deep/C-v2.yml", "drafts/D-v1.yaml", "out/all/E-v1.yaml"))
+        {
+            Path path = this.pathToRootDirectory.resolve(file);
+
+            Files.createDirectories(path.getParent());
+            Files.write(path, new byte[0]);
+        }
+    }
+
+    @Test
+    public void searchesRootDirectoryOnly()
+            throws Exception
+    {
+        assertFound(newFinder(false, DEFAULT_INCLUDE, Collections.emptyList()), "A-v1.yaml");
+    }
+
+    @Test
+    public void searchesSubdirectoriesRecursively()
+            throws Exception
+    {
+        assertFound(newFinder(true, DEFAULT_INCLUDE, Collections.emptyList()),
+                "A-v1.yaml", "sub/B-v1.yaml", "sub/deep/C-v1.yaml", "drafts/D-v1.yaml", "out/all/E-v1.yaml");
+    }
+
+    @Test
+    public void selectsFilesMatchingIncludePatterns()
+            throws Exception
+    {
+        assertFound(newFinder(true, Arrays.asList("sub/**.yaml", "**.yml"), Collections.emptyList()),
+                "sub/B-v1.yaml", "sub/deep/C-v1.yaml", "sub/deep/C-v2.yml");
+
+        // a single '*' does not cross directory boundaries
+        assertFound(newFinder(true, Collections.singletonList("*.yaml"), Collections.emptyList()), "A-v1.yaml");
+    }
+
+    @Test
+    public void leavesOutFilesAndDirectoriesMatchingExcludePatterns()
+            throws Exception
+    {
+        assertFound(newFinder(true, DEFAULT_INCLUDE, Arrays.asList("drafts", "**/deep", "out/**")),
+                "A-v1.yaml", "sub/B-v1.yaml");
+
+        assertFound(newFinder(true, DEFAULT_INCLUDE, Collections.singletonList("**B-v*.yaml")),
+                "A-v1.yaml", "sub/deep/C-v1.yaml", "drafts/D-v1.yaml", "out/all/E-v1.yaml");
+    }
+
+    @Test
+    public void leavesOutExcludedDirectory()
+            throws Exception
+    {
+        OpenApiYamlFileFinder finder = newFinder(true, DEFAULT_INCLUDE, Collections.emptyList());
+
+        // as the editor service does for an output directory held within the input directory
+        finder.excludeDirectory(this.pathToRootDirectory.resolve("sub/../out"));
+
+        assertFound(finder, "A-v1.yaml", "sub/B-v1.yaml", "sub/deep/C-v1.yaml", "drafts/D-v1.yaml");
+
+        assertFalse(finder.isSearchedDirectory(this.pathToRootDirectory.resolve("out/all")));
+        assertFalse(finder.matches(this.pathToRootDirectory.resolve("out/all/E-v1.yaml")));
+        assertTrue(finder.matches(this.pathToRootDirectory.resolve("sub/deep/C-v1.yaml")));
+    }
+
+    @Test
+    public void matchesPathsAsSearchWould()
+            throws Exception
+    {
+        OpenApiYamlFileFinder finder = newFinder(false, DEFAULT_INCLUDE, Collections.emptyList());
+
+        assertTrue(finder.isSearchedDirectory(this.pathToRootDirectory));
+        assertFalse(finder.isSearchedDirectory(this.pathToRootDirectory.resolve("sub")));
+        assertFalse(finder.isSearchedDirectory(this.pathToRootDirectory.getParent()));
+
+        assertTrue(finder.matches(this.pathToRootDirectory.resolve("New-v1.yaml")));
+        assertFalse(finder.matches(this.pathToRootDirectory.resolve("notes.txt")));
+        assertFalse(finder.matches(this.pathToRootDirectory.resolve("sub/B-v1.yaml")));
+    }
+
+    @Test
+    public void stopsAtFirstConsumerError()
+            throws Exception
+    {
+        OpenApiYamlFileFinder finder = newFinder(true, DEFAULT_INCLUDE, Collections.emptyList());
+
+        try
+        {
+            finder.find(path -> {
+                throw new Exception("Rejected " + path.getFileName());
+            });
+            fail("Consumer error was not thrown");
+        }
+        catch (Exception ex)
+        {
+            assertTrue(ex.getMessage(), ex.getMessage().startsWith("Rejected "));
+        }
+    }
+
+    /**
+     * Method to create a finder searching the root directory using two threads.
+     */
+    private OpenApiYamlFileFinder newFinder(boolean recursive, List<String> includePatterns,
+            List<String> excludePatterns)
+    {
+        return new OpenApiYamlFileFinder(this.pathToRootDirectory, recursive, includePatterns, excludePatterns, 2);
+    }
+
+    /**
+     * Method to check the files found by a search, as paths relative to the root directory.
+     */
+    private void assertFound(OpenApiYamlFileFinder finder, String... expectedFiles)
+            throws Exception
+    {
+        Set<String> found = new ConcurrentSkipListSet<>();
+
+        finder.find(path -> found.add(this.pathToRootDirectory.relativize(path).toString()));
+
+        assertEquals(new TreeSet<>(Arrays.asList(expectedFiles)), found);
+    }
+}
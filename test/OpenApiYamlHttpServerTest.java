@@ -0,0 +1,330 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that the HTTP server transforms documents, answers each kind of bad request with the expected status, and
+ * publishes counts of the requests it handles.
+ */
+public class OpenApiYamlHttpServerTest
+{
+    // region STATIC VARIABLES
+
+    private static final String SPEC = String.join("\n",
+            "openapi: 3.1.0",
+            "info:",
+            "  title: Adyen Checkout API",
+            "  version: '70'",
+            "servers:",
+            "- url: https://checkout-test.adyen.com/v70",
+            "");
+
+    private static final int MAX_REQUEST_BYTES = 1024;
+
+    // time allowed for the server to reach an expected state
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    // endregion
+
+    // region INSTANCE VARIABLES
+
+    private OpenApiYamlHttpServer server;
+
+    private InetSocketAddress address;
+
+    // endregion
+
+    @Before
+    public void startServer()
+            throws Exception
+    {
+        this.server = new OpenApiYamlHttpServer(InetAddress.getLoopbackAddress(), 0, MAX_REQUEST_BYTES, 1);
+        this.address = this.server.start();
+    }
+
+    @After
+    public void stopServer()
+    {
+        this.server.stop(0);
+    }
+
+    @Test
+    public void transformsDocument()
+            throws Exception
+    {
+        Response response = send("POST", "/transform", SPEC.getBytes(StandardCharsets.UTF_8), false);
+
+        assertEquals(200, response.status);
+        assertEquals("application/yaml; charset=utf-8", response.contentType);
+        assertArrayEquals(transform(SPEC), response.body);
+    }
+
+    @Test
+    public void rejectsOtherMethods()
+            throws Exception
+    {
+        Response response = send("GET", "/transform", null, false);
+
+        assertEquals(405, response.status);
+        assertEquals("POST", response.allow);
+    }
+
+    @Test
+    public void rejectsOversizedBodies()
+            throws Exception
+    {
+        byte[] body = new byte[MAX_REQUEST_BYTES + 1];
+
+        // size declared up front, and found while reading a body sent in chunks
+        assertEquals(413, send("POST", "/transform", body, false).status);
+        assertEquals(413, send("POST", "/transform", body, true).status);
+
+        assertEquals(2, getMetric("openapi_editor_http_requests_too_large_total"), 0);
+    }
+
+    @Test
+    public void rejectsInvalidContentLength()
+            throws Exception
+    {
+        try (Socket socket = new Socket(this.address.getAddress(), this.address.getPort()))
+        {
+            socket.setSoTimeout((int) TIMEOUT_MILLIS);
+            socket.getOutputStream().write(
+                    "POST /transform HTTP/1.1\r\nHost: localhost\r\nContent-Length: 12x\r\n\r\n"
+                            .getBytes(StandardCharsets.US_ASCII));
+
+            String statusLine = new String(socket.getInputStream().readNBytes(12), StandardCharsets.US_ASCII);
+
+            assertEquals("HTTP/1.1 400", statusLine);
+        }
+    }
+
+    @Test
+    public void rejectsMalformedDocument()
+            throws Exception
+    {
+        byte[] body = SPEC.getBytes(StandardCharsets.UTF_8);
+        body[SPEC.indexOf("Checkout")] = (byte) 0xFF;
+
+        Response response = send("POST", "/transform", body, false);
+
+        assertEquals(400, response.status);
+        assertTrue(new String(response.body, StandardCharsets.UTF_8).startsWith("Document is not valid UTF-8"));
+    }
+
+    @Test
+    public void rejectsPathsExtendingContextPaths()
+            throws Exception
+    {
+        assertEquals(404, send("POST", "/transformXYZ", SPEC.getBytes(StandardCharsets.UTF_8), false).status);
+        assertEquals(404, send("GET", "/metrics/extra", null, false).status);
+
+        assertEquals(0, getMetric("openapi_editor_http_requests_total"), 0);
+    }
+
+    @Test
+    public void refusesRequestsBeyondLimit()
+            throws Exception
+    {
+        // hold the only permit by sending part of a body, leaving the handler waiting for the rest
+        try (Socket socket = new Socket(this.address.getAddress(), this.address.getPort()))
+        {
+            socket.getOutputStream().write(("POST /transform HTTP/1.1\r\nHost: localhost\r\nContent-Length: 100\r\n\r\n"
+                    + "openapi").getBytes(StandardCharsets.US_ASCII));
+            socket.getOutputStream().flush();
+
+            awaitMetric("openapi_editor_http_requests_in_flight", 1);
+
+            Response response = send("POST", "/transform", SPEC.getBytes(StandardCharsets.UTF_8), false);
+
+            assertEquals(503, response.status);
+            assertEquals("1", response.retryAfter);
+        }
+
+        // the permit is returned once the held request ends
+        awaitMetric("openapi_editor_http_requests_in_flight", 0);
+
+        assertEquals(200, send("POST", "/transform", SPEC.getBytes(StandardCharsets.UTF_8), false).status);
+    }
+
+    @Test
+    public void publishesRequestCounts()
+            throws Exception
+    {
+        byte[] spec = SPEC.getBytes(StandardCharsets.UTF_8);
+
+        send("POST", "/transform", spec, false);
+        send("GET", "/transform", null, false);
+        send("POST", "/transform", new byte[MAX_REQUEST_BYTES + 1], false);
+
+        String metrics = new String(send("GET", "/metrics", null, false).body, StandardCharsets.UTF_8);
+
+        for (String name : new String[] {"openapi_editor_http_requests_total",
+                "openapi_editor_http_requests_failed_total", "openapi_editor_http_requests_too_large_total",
+                "openapi_editor_http_request_bytes_total", "openapi_editor_http_response_bytes_total",
+                "openapi_editor_http_transform_seconds_total"})
+        {
+            assertTrue(name, metrics.contains("# HELP " + name + " "));
+            assertTrue(name, metrics.contains("# TYPE " + name + " counter\n"));
+        }
+
+        assertTrue(metrics.contains("# TYPE openapi_editor_http_requests_in_flight gauge\n"));
+
+        assertEquals(3, getMetric("openapi_editor_http_requests_total"), 0);
+        assertEquals(2, getMetric("openapi_editor_http_requests_failed_total"), 0);
+        assertEquals(1, getMetric("openapi_editor_http_requests_too_large_total"), 0);
+        assertEquals(spec.length, getMetric("openapi_editor_http_request_bytes_total"), 0);
+        assertEquals(transform(SPEC).length, getMetric("openapi_editor_http_response_bytes_total"), 0);
+        assertEquals(0, getMetric("openapi_editor_http_requests_in_flight"), 0);
+    }
+
+    @Test
+    public void rejectsLimitsOutOfRange()
+    {
+        int[][] limits = {{0, 1}, {-1, 1}, {Integer.MAX_VALUE, 1}, {1024, 0}, {1024, -1}};
+
+        for (int[] limit : limits)
+        {
+            try
+            {
+                new OpenApiYamlHttpServer(InetAddress.getLoopbackAddress(), 0, limit[0], limit[1]);
+                fail("Accepted limits " + limit[0] + " and " + limit[1]);
+            }
+            catch (Exception ex)
+            {
+                assertTrue(ex.getMessage(), ex.getMessage().startsWith("Maximum "));
+            }
+        }
+    }
+
+    /**
+     * Method to send a request to the server, optionally streaming the body in chunks without declaring its size.
+     */
+    private Response send(String method, String path, byte[] body, boolean chunked)
+            throws Exception
+    {
+        URL url = new URL("http", this.address.getHostString(), this.address.getPort(), path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+
+        try
+        {
+            connection.setRequestMethod(method);
+
+            if (body != null)
+            {
+                connection.setDoOutput(true);
+
+                if (chunked)
+                {
+                    connection.setChunkedStreamingMode(256);
+                }
+                else
+                {
+                    connection.setFixedLengthStreamingMode(body.length);
+                }
+
+                try (OutputStream out = connection.getOutputStream())
+                {
+                    out.write(body);
+                }
+            }
+
+            Response response = new Response();
+            response.status = connection.getResponseCode();
+            response.contentType = connection.getHeaderField("Content-Type");
+            response.allow = connection.getHeaderField("Allow");
+            response.retryAfter = connection.getHeaderField("Retry-After");
+
+            try (InputStream in = response.status < 400 ? connection.getInputStream() : connection.getErrorStream())
+            {
+                response.body = in != null ? in.readAllBytes() : new byte[0];
+            }
+
+            return response;
+        }
+        finally
+        {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Method to read the value of a metric published at /metrics.
+     */
+    private double getMetric(String name)
+            throws Exception
+    {
+        String metrics = new String(send("GET", "/metrics", null, false).body, StandardCharsets.UTF_8);
+
+        for (String line : metrics.split("\n"))
+        {
+            if (line.startsWith(name + " "))
+            {
+                return Double.parseDouble(line.substring(name.length() + 1));
+            }
+        }
+
+        throw new AssertionError("Metric " + name + " not published");
+    }
+
+    /**
+     * Method to wait until a metric published at /metrics reaches a value.
+     */
+    private void awaitMetric(String name, double value)
+            throws Exception
+    {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+
+        while (getMetric(name) != value)
+        {
+            if (System.currentTimeMillis() > deadline)
+            {
+                fail(name + " did not reach " + value + " within " + TIMEOUT_MILLIS + " ms");
+            }
+
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * Method to transform a document using the stream transformer the server uses.
+     */
+    private static byte[] transform(String content)
+            throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new OpenApiYamlStreamTransformer().transform(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                out);
+
+        return out.toByteArray();
+    }
+
+    /**
+     * This class holds the parts of a response checked by the tests.
+     */
+    private static class Response
+    {
+        private int status;
+        private String contentType;
+        private String allow;
+        private String retryAfter;
+        private byte[] body;
+    }
+}
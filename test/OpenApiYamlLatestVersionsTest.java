@@ -0,0 +1,114 @@
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that the latest version of each collection is found from file names, whatever order the files are added in.
+ */
+public class OpenApiYamlLatestVersionsTest
+{
+    @Test
+    public void separatesCollectionsSharingPrefix()
+    {
+        assertLatestPaths(Arrays.asList("BalancePlatformService-v1.yaml", "BalancePlatformService-v2.yaml",
+                "BalancePlatformServiceNotifications-v1.yaml"),
+                "BalancePlatformService-v2.yaml", "BalancePlatformServiceNotifications-v1.yaml");
+    }
+
+    @Test
+    public void comparesVersionsNumerically()
+    {
+        assertLatestPaths(Arrays.asList("BinLookup-v6.yaml", "BinLookup-v54.yaml", "BinLookup-v9.yaml"),
+                "BinLookup-v54.yaml");
+    }
+
+    @Test
+    public void keepsDigitsInCollectionNames()
+    {
+        assertLatestPaths(Arrays.asList("Payments2-v1.yaml", "Payments-v2.yaml", "Checkout3ds-v10.yaml",
+                "Checkout3ds-v2.yaml", "Api-v1-v3.yaml", "Api-v1-v12.yaml"),
+                "Payments2-v1.yaml", "Payments-v2.yaml", "Checkout3ds-v10.yaml", "Api-v1-v12.yaml");
+    }
+
+    @Test
+    public void treatsUnversionedNamesAsOwnCollection()
+    {
+        assertLatestPaths(Arrays.asList("Checkout.yaml", "Checkout-v70.yaml", "Checkout-vX.yaml", "-v1.yaml",
+                "Checkout-v1234567890.yaml"),
+                "Checkout.yaml", "Checkout-v70.yaml", "Checkout-vX.yaml", "-v1.yaml", "Checkout-v1234567890.yaml");
+    }
+
+    @Test
+    public void breaksTiesOnFileName()
+    {
+        assertLatestPaths(Arrays.asList("Foo-v1.yaml", "Foo-v01.yaml", "Foo-v001.yaml"), "Foo-v001.yaml");
+
+        // same file name in different directories, as recursive discovery may find
+        assertLatestPaths(Arrays.asList("b/Foo-v1.yaml", "a/Foo-v1.yaml"), "a/Foo-v1.yaml");
+    }
+
+    @Test
+    public void findsLatestPathOfCollection()
+    {
+        OpenApiYamlLatestVersions latestVersions = new OpenApiYamlLatestVersions();
+
+        assertNull(latestVersions.getLatestPath(Paths.get("Checkout-v69.yaml")));
+
+        assertTrue(latestVersions.add(Paths.get("Checkout-v69.yaml")));
+        assertTrue(latestVersions.add(Paths.get("Checkout-v70.yaml")));
+        assertFalse(latestVersions.add(Paths.get("Checkout-v68.yaml")));
+
+        assertEquals(Paths.get("Checkout-v70.yaml"), latestVersions.getLatestPath(Paths.get("Checkout-v1.yaml")));
+        assertTrue(latestVersions.isLatest(Paths.get("Checkout-v70.yaml")));
+        assertFalse(latestVersions.isLatest(Paths.get("Checkout-v69.yaml")));
+        assertFalse(latestVersions.isLatest(Paths.get("CheckoutNotifications-v70.yaml")));
+    }
+
+    /**
+     * Method to check the latest paths found from file names added in their given order, reversed, and shuffled.
+     */
+    private static void assertLatestPaths(List<String> fileNames, String... expectedFileNames)
+    {
+        Set<Path> expected = new HashSet<>();
+
+        for (String expectedFileName : expectedFileNames)
+        {
+            expected.add(Paths.get(expectedFileName));
+        }
+
+        List<String> ordered = new ArrayList<>(fileNames);
+
+        for (int attempt = 0; attempt < 10; attempt++)
+        {
+            OpenApiYamlLatestVersions latestVersions = new OpenApiYamlLatestVersions();
+
+            for (String fileName : ordered)
+            {
+                latestVersions.add(Paths.get(fileName));
+            }
+
+            assertEquals("Added in order " + ordered, expected, latestVersions.getLatestPaths());
+
+            if (attempt == 0)
+            {
+                Collections.reverse(ordered);
+            }
+            else
+            {
+                Collections.shuffle(ordered);
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that the manifest skips inputs only while they match the content last processed.
+ */
+public class OpenApiYamlManifestTest
+{
+    // region STATIC VARIABLES
+
+    private static final String KEY = "Checkout-v70.yaml";
+
+    private static final FileTime MODIFIED = FileTime.fromMillis(1_700_000_000_000L);
+
+    // endregion
+
+    // region INSTANCE VARIABLES
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path pathToInputFile;
+    private Path pathToOutputDirectory;
+    private Path pathToOutputFile;
+
+    // endregion
+
+    @Before
+    public void createFiles()
+            throws Exception
+    {
+        this.pathToInputFile = this.folder.newFolder("in").toPath().resolve(KEY);
+        this.pathToOutputDirectory = this.folder.newFolder("out").toPath();
+        this.pathToOutputFile = this.pathToOutputDirectory.resolve(KEY);
+
+        Files.write(this.pathToOutputFile, new byte[0]);
+    }
+
+    @Test
+    public void skipsInputRecordedInEarlierRun()
+            throws Exception
+    {
+        writeInput("X", MODIFIED);
+
+        OpenApiYamlManifest manifest = new OpenApiYamlManifest(this.pathToOutputDirectory);
+
+        assertFalse(isUnchanged(manifest));
+
+        manifest.record(KEY, hash("X"));
+        manifest.save(new OpenApiYamlOutputSync(OpenApiYamlOutputSync.FsyncPolicy.NONE));
+
+        assertTrue(isUnchanged(new OpenApiYamlManifest(this.pathToOutputDirectory)));
+
+        // same content with a new modification time, e.g. after a fresh checkout
+        writeInput("X", FileTime.fromMillis(MODIFIED.toMillis() + 1000));
+
+        assertTrue(isUnchanged(new OpenApiYamlManifest(this.pathToOutputDirectory)));
+    }
+
+    @Test
+    public void processesInputRevertedWithinRun()
+            throws Exception
+    {
+        writeInput("X", MODIFIED);
+
+        OpenApiYamlManifest manifest = new OpenApiYamlManifest(this.pathToOutputDirectory);
+
+        assertFalse(isUnchanged(manifest));
+        manifest.record(KEY, hash("X"));
+        manifest.save(new OpenApiYamlOutputSync(OpenApiYamlOutputSync.FsyncPolicy.NONE));
+
+        // watch mode keeps using the manifest loaded for its initial run
+        manifest = new OpenApiYamlManifest(this.pathToOutputDirectory);
+
+        assertTrue(isUnchanged(manifest));
+
+        writeInput("Y", FileTime.fromMillis(MODIFIED.toMillis() + 1000));
+
+        assertFalse(isUnchanged(manifest));
+        manifest.record(KEY, hash("Y"));
+
+        // reverting restores the size, modification time and hash loaded at the start of the run
+        writeInput("X", MODIFIED);
+
+        assertFalse(isUnchanged(manifest));
+        manifest.record(KEY, hash("X"));
+
+        assertTrue(isUnchanged(manifest));
+    }
+
+    @Test
+    public void processesInputModifiedWhileBeingProcessed()
+            throws Exception
+    {
+        writeInput("X", MODIFIED);
+
+        OpenApiYamlManifest manifest = new OpenApiYamlManifest(this.pathToOutputDirectory);
+
+        assertFalse(isUnchanged(manifest));
+
+        // modified after being read, so the content processed is not the content now in the file
+        writeInput("Y", FileTime.fromMillis(MODIFIED.toMillis() + 1000));
+
+        manifest.record(KEY, hash("X"));
+        manifest.save(new OpenApiYamlOutputSync(OpenApiYamlOutputSync.FsyncPolicy.NONE));
+
+        assertFalse(isUnchanged(new OpenApiYamlManifest(this.pathToOutputDirectory)));
+    }
+
+    @Test
+    public void processesInputWithoutOutput()
+            throws Exception
+    {
+        writeInput("X", MODIFIED);
+
+        OpenApiYamlManifest manifest = new OpenApiYamlManifest(this.pathToOutputDirectory);
+
+        assertFalse(isUnchanged(manifest));
+        manifest.record(KEY, hash("X"));
+
+        Files.delete(this.pathToOutputFile);
+
+        assertFalse(isUnchanged(manifest));
+    }
+
+    @Test(expected = Exception.class)
+    public void rejectsInputNotChecked()
+            throws Exception
+    {
+        new OpenApiYamlManifest(this.pathToOutputDirectory).record(KEY, hash("X"));
+    }
+
+    @Test
+    public void hashesContentAsReadByEachEngine()
+            throws Exception
+    {
+        String content = "openapi: 3.1.0\r\ninfo:\r\n  title: Adyen Checkout API\r\n  version: '70'\r\n";
+        Files.write(this.pathToInputFile, content.getBytes(StandardCharsets.UTF_8));
+
+        for (OpenApiYamlFile.EditEngine engine : OpenApiYamlFile.EditEngine.values())
+        {
+            OpenApiYamlFile file = new OpenApiYamlFile(this.pathToInputFile, this.pathToOutputDirectory, engine);
+            file.setHashContent(true);
+            file.amendAndSave();
+
+            assertEquals(engine + " engine hash differs", hash(content), file.getContentHash());
+        }
+
+        // content the bytes engine edits directly rather than handing to the streaming engine
+        content = content.replace("\r\n", "\n");
+        Files.write(this.pathToInputFile, content.getBytes(StandardCharsets.UTF_8));
+
+        OpenApiYamlFile file = new OpenApiYamlFile(this.pathToInputFile, this.pathToOutputDirectory,
+                OpenApiYamlFile.EditEngine.BYTES);
+        file.setHashContent(true);
+        file.amendAndSave();
+
+        assertEquals(hash(content), file.getContentHash());
+    }
+
+    /**
+     * Method to check whether the input file is unchanged according to a manifest.
+     */
+    private boolean isUnchanged(OpenApiYamlManifest manifest)
+            throws Exception
+    {
+        return manifest.isUnchanged(KEY, this.pathToInputFile, this.pathToOutputFile);
+    }
+
+    /**
+     * Method to replace the content of the input file and set its modification time.
+     */
+    private void writeInput(String content, FileTime modified)
+            throws Exception
+    {
+        Files.write(this.pathToInputFile, content.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(this.pathToInputFile, modified);
+    }
+
+    /**
+     * Method to calculate the SHA-256 hash of content, as lower case hexadecimal.
+     */
+    private static String hash(String content)
+            throws Exception
+    {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+        StringBuilder hex = new StringBuilder();
+
+        for (byte b : digest)
+        {
+            hex.append(String.format("%02x", b));
+        }
+
+        return hex.toString();
+    }
+}
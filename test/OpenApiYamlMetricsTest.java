@@ -0,0 +1,232 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that the metrics saved after each run are valid Prometheus text, and count the files and bytes processed.
+ */
+public class OpenApiYamlMetricsTest
+{
+    // region STATIC VARIABLES
+
+    private static final String PREFIX = "openapi_editor_";
+
+    // metric families expected, with their types, in the order they are exported
+    private static final String[][] FAMILIES = {
+            {"files_processed_total", "counter"},
+            {"files_skipped_total", "counter"},
+            {"files_failed_total", "counter"},
+            {"read_bytes_total", "counter"},
+            {"written_bytes_total", "counter"},
+            {"authentication_lines_removed_total", "counter"},
+            {"runs_total", "counter"},
+            {"last_run_timestamp_seconds", "gauge"},
+            {"last_run_success", "gauge"},
+            {"base_url_files_total", "counter"},
+            {"phase_duration_seconds", "summary"}
+    };
+
+    // endregion
+
+    // region INSTANCE VARIABLES
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path pathToInputDirectory;
+    private Path pathToOutputDirectory;
+    private Path pathToMetricsFile;
+
+    // endregion
+
+    @Before
+    public void createDirectories()
+            throws Exception
+    {
+        this.pathToInputDirectory = this.folder.newFolder("in").toPath();
+        this.pathToOutputDirectory = this.folder.newFolder("out").toPath();
+        this.pathToMetricsFile = this.folder.getRoot().toPath().resolve("editor.prom");
+
+        writeInput("Checkout-v70.yaml", "- url: https://checkout-test.adyen.com/v70");
+        writeInput("Legacy-v2.yaml", "- url: https://legacy-test.adyen.com/legacy");
+        writeInput("Webhook-v1.yaml", "");
+    }
+
+    @Test
+    public void exportsMetricFamiliesWithHelpAndType()
+    {
+        List<String> lines = List.of(new OpenApiYamlMetrics().toPrometheusText().split("\n"));
+        List<String> families = new ArrayList<>();
+
+        for (int i = 0; i < lines.size(); i++)
+        {
+            String line = lines.get(i);
+
+            if (line.startsWith("# HELP "))
+            {
+                String[] help = line.split(" ", 4);
+                String[] type = lines.get(++i).split(" ");
+
+                assertEquals(4, help.length);
+                assertEquals(line, List.of("#", "TYPE", help[2]), List.of(type).subList(0, 3));
+
+                families.add(help[2].substring(PREFIX.length()));
+                families.add(type[3]);
+            }
+            else
+            {
+                // every sample belongs to the family last declared
+                String family = PREFIX + families.get(families.size() - 2);
+
+                assertTrue(line, line.startsWith(family + " ") || line.startsWith(family + "{")
+                        || line.startsWith(family + "_sum{") || line.startsWith(family + "_count{"));
+            }
+        }
+
+        List<String> expected = new ArrayList<>();
+
+        for (String[] family : FAMILIES)
+        {
+            expected.addAll(List.of(family));
+        }
+
+        assertEquals(expected, families);
+    }
+
+    @Test
+    public void countsFilesAcrossRuns()
+            throws Exception
+    {
+        OpenApiYamlEditorService service = new OpenApiYamlEditorService(this.pathToInputDirectory.toString(),
+                this.pathToOutputDirectory.toString(), false);
+        service.setIncrementalRuns(true);
+        service.setMetricsFile(this.pathToMetricsFile);
+
+        long startSeconds = System.currentTimeMillis() / 1000;
+
+        // all files processed, then all skipped as unchanged
+        service.run();
+        service.run();
+
+        Map<String, String> samples = readSamples();
+
+        assertEquals("3", samples.get("files_processed_total"));
+        assertEquals("3", samples.get("files_skipped_total"));
+        assertEquals("0", samples.get("files_failed_total"));
+        assertEquals(String.valueOf(sizeOfFiles(this.pathToInputDirectory)), samples.get("read_bytes_total"));
+        assertEquals(String.valueOf(sizeOfFiles(this.pathToOutputDirectory.resolve("all"))),
+                samples.get("written_bytes_total"));
+        assertEquals("9", samples.get("authentication_lines_removed_total"));
+        assertEquals("2", samples.get("runs_total"));
+        assertEquals("1", samples.get("last_run_success"));
+        assertTrue(Long.parseLong(samples.get("last_run_timestamp_seconds")) >= startSeconds);
+        assertEquals("1", samples.get("base_url_files_total{outcome=\"amended\"}"));
+        assertEquals("1", samples.get("base_url_files_total{outcome=\"no_url_line\"}"));
+        assertEquals("1", samples.get("base_url_files_total{outcome=\"no_version_segment\"}"));
+        assertEquals("2", samples.get("phase_duration_seconds_count{phase=\"discovery\"}"));
+        assertEquals("3", samples.get("phase_duration_seconds_count{phase=\"file\"}"));
+
+        // a file missing its title fails the run
+        Files.write(this.pathToInputDirectory.resolve("Broken-v1.yaml"),
+                "openapi: 3.1.0\ninfo:\n  version: '1'\n".getBytes(StandardCharsets.UTF_8));
+
+        try
+        {
+            service.run();
+            fail("Run did not report the broken file");
+        }
+        catch (Exception ex)
+        {
+            // expected
+        }
+
+        samples = readSamples();
+
+        assertEquals("3", samples.get("files_processed_total"));
+        assertEquals("1", samples.get("files_failed_total"));
+        assertEquals("3", samples.get("runs_total"));
+        assertEquals("0", samples.get("last_run_success"));
+
+        assertEquals(service.getMetrics().toPrometheusText(),
+                new String(Files.readAllBytes(this.pathToMetricsFile), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Method to read the samples saved to the metrics file, keyed by metric name and labels without the prefix.
+     */
+    private Map<String, String> readSamples()
+            throws Exception
+    {
+        Map<String, String> samples = new LinkedHashMap<>();
+
+        for (String line : Files.readAllLines(this.pathToMetricsFile, StandardCharsets.UTF_8))
+        {
+            if (!line.startsWith("#"))
+            {
+                int separator = line.lastIndexOf(' ');
+
+                assertTrue(line, line.startsWith(PREFIX));
+                samples.put(line.substring(PREFIX.length(), separator), line.substring(separator + 1));
+            }
+        }
+
+        return samples;
+    }
+
+    /**
+     * Method to add up the sizes of the files in a directory.
+     */
+    private static long sizeOfFiles(Path directory)
+            throws Exception
+    {
+        long size = 0;
+
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory))
+        {
+            for (Path path : paths)
+            {
+                size += Files.size(path);
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Method to write a minimal OpenAPI document with a server URL line, or none if the line is empty.
+     */
+    private void writeInput(String fileName, String urlLine)
+            throws Exception
+    {
+        String content = String.join("\n",
+                "openapi: 3.1.0",
+                "info:",
+                "  title: Adyen " + fileName.substring(0, fileName.indexOf('-')) + " API",
+                "  version: '1'",
+                urlLine.isEmpty() ? "webhooks:" : "servers:\n" + urlLine,
+                "paths:",
+                "  /payments:",
+                "    post:",
+                "      security:",
+                "      - BasicAuth: []",
+                "      - ApiKeyAuth: []",
+                "      summary: Start a transaction",
+                "");
+
+        Files.write(this.pathToInputDirectory.resolve(fileName), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,264 @@
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that output files are only replaced when their content changes, and never left partially written.
+ */
+public class OpenApiYamlOutputFileTest
+{
+    // region STATIC VARIABLES
+
+    private static final FileTime MODIFIED = FileTime.fromMillis(1_700_000_000_000L);
+
+    // endregion
+
+    // region INSTANCE VARIABLES
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path pathToDirectory;
+    private Path pathToTargetFile;
+
+    // endregion
+
+    @Before
+    public void createTarget()
+            throws Exception
+    {
+        this.pathToDirectory = this.folder.newFolder().toPath();
+        this.pathToTargetFile = this.pathToDirectory.resolve("Checkout-v70.yaml");
+
+        Files.write(this.pathToTargetFile, "original\n".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(this.pathToTargetFile, MODIFIED);
+    }
+
+    @Test
+    public void replacesTargetWithChangedContent()
+            throws Exception
+    {
+        assertTrue(commit("amended\n"));
+
+        assertEquals("amended\n", readTarget());
+        assertEquals(1, countFiles());
+    }
+
+    @Test
+    public void leavesTargetWithIdenticalContentUntouched()
+            throws Exception
+    {
+        assertFalse(commit("original\n"));
+
+        assertEquals(MODIFIED, Files.getLastModifiedTime(this.pathToTargetFile));
+        assertEquals(1, countFiles());
+    }
+
+    @Test
+    public void replacesTargetWithContentOfSameSize()
+            throws Exception
+    {
+        assertTrue(commit("origina1\n"));
+
+        assertEquals("origina1\n", readTarget());
+    }
+
+    @Test
+    public void createsMissingTarget()
+            throws Exception
+    {
+        Files.delete(this.pathToTargetFile);
+
+        assertTrue(commit("amended\n"));
+
+        assertEquals("amended\n", readTarget());
+    }
+
+    @Test
+    public void keepsTargetWhenWritingFails()
+            throws Exception
+    {
+        try (OpenApiYamlOutputFile output = new OpenApiYamlOutputFile(this.pathToTargetFile, newOutputSync()))
+        {
+            Files.write(output.getPathToTemporaryFile(), "partial".getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals("original\n", readTarget());
+        assertEquals(1, countFiles());
+    }
+
+    @Test
+    public void createsTemporaryFileWithDefaultPermissions()
+            throws Exception
+    {
+        Set<PosixFilePermission> defaultPermissions;
+
+        try
+        {
+            defaultPermissions = Files.getPosixFilePermissions(this.pathToTargetFile);
+        }
+        catch (UnsupportedOperationException ex)
+        {
+            Assume.assumeNoException(ex);
+            return;
+        }
+
+        Files.delete(this.pathToTargetFile);
+        commit("amended\n");
+
+        assertEquals(defaultPermissions, Files.getPosixFilePermissions(this.pathToTargetFile));
+    }
+
+    @Test
+    public void publishesUsingEachFsyncPolicy()
+            throws Exception
+    {
+        for (OpenApiYamlOutputSync.FsyncPolicy fsyncPolicy : OpenApiYamlOutputSync.FsyncPolicy.values())
+        {
+            OpenApiYamlOutputSync outputSync = new OpenApiYamlOutputSync(fsyncPolicy);
+
+            assertTrue(commit(fsyncPolicy.name(), outputSync));
+            outputSync.syncBatch();
+
+            assertEquals(fsyncPolicy.name(), readTarget());
+            assertEquals(1, countFiles());
+        }
+    }
+
+    @Test
+    public void syncsBatchAfterPublishedFileIsDeleted()
+            throws Exception
+    {
+        OpenApiYamlOutputSync outputSync = new OpenApiYamlOutputSync(OpenApiYamlOutputSync.FsyncPolicy.BATCH);
+
+        commit("amended\n", outputSync);
+        Files.delete(this.pathToTargetFile);
+
+        outputSync.syncBatch();
+    }
+
+    @Test
+    public void neverExposesPartialContent()
+            throws Exception
+    {
+        byte[] first = new byte[1024 * 1024];
+        byte[] second = new byte[first.length];
+        Arrays.fill(first, (byte) 'a');
+        Arrays.fill(second, (byte) 'b');
+
+        Files.write(this.pathToTargetFile, first);
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger readCount = new AtomicInteger();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try
+        {
+            // read the target continuously while it is replaced, checking every read sees one complete version
+            Future<?> reads = executor.submit(() -> {
+                while (writing.get())
+                {
+                    byte[] content = Files.readAllBytes(this.pathToTargetFile);
+
+                    if (!Arrays.equals(content, first) && !Arrays.equals(content, second))
+                    {
+                        throw new AssertionError("Read partial content of " + content.length + " byte(s)");
+                    }
+
+                    readCount.incrementAndGet();
+                }
+
+                return null;
+            });
+
+            for (int i = 0; i < 50 || readCount.get() < 50 && !reads.isDone(); i++)
+            {
+                try (OpenApiYamlOutputFile output = new OpenApiYamlOutputFile(this.pathToTargetFile, newOutputSync()))
+                {
+                    Files.write(output.getPathToTemporaryFile(), i % 2 == 0 ? second : first);
+                    output.commit();
+                }
+            }
+
+            writing.set(false);
+            reads.get();
+        }
+        finally
+        {
+            writing.set(false);
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Method to write content through an output file to the target and commit it.
+     */
+    private boolean commit(String content)
+            throws Exception
+    {
+        return commit(content, newOutputSync());
+    }
+
+    /**
+     * Method to write content through an output file to the target and commit it, using a policy for flushing it.
+     */
+    private boolean commit(String content, OpenApiYamlOutputSync outputSync)
+            throws Exception
+    {
+        try (OpenApiYamlOutputFile output = new OpenApiYamlOutputFile(this.pathToTargetFile, outputSync))
+        {
+            Files.write(output.getPathToTemporaryFile(), content.getBytes(StandardCharsets.UTF_8));
+
+            return output.commit();
+        }
+    }
+
+    /**
+     * Method to create the policy for flushing outputs used by each test.
+     */
+    private OpenApiYamlOutputSync newOutputSync()
+    {
+        return new OpenApiYamlOutputSync(OpenApiYamlOutputSync.FsyncPolicy.NONE);
+    }
+
+    /**
+     * Method to read the content of the target.
+     */
+    private String readTarget()
+            throws Exception
+    {
+        return new String(Files.readAllBytes(this.pathToTargetFile), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Method to count the files in the target's directory, including any temporary files left behind.
+     */
+    private long countFiles()
+            throws Exception
+    {
+        try (Stream<Path> paths = Files.list(this.pathToDirectory))
+        {
+            return paths.count();
+        }
+    }
+}
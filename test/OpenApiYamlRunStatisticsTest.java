@@ -0,0 +1,178 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that the JSON run report records the volume of data, base URL outcomes, phase timings and slowest files of a
+ * run.
+ */
+public class OpenApiYamlRunStatisticsTest
+{
+    // region STATIC VARIABLES
+
+    // slowest file entries in a JSON run report
+    private static final Pattern SLOWEST_FILE = Pattern.compile("\\{\"path\": \"[^\"]+\", \"totalMillis\": [0-9.]+, "
+            + "\"readMillis\": [0-9.]+, \"editMillis\": [0-9.]+, \"writeMillis\": [0-9.]+, \"inputBytes\": \\d+, "
+            + "\"outputBytes\": \\d+, \"lines\": \\d+}");
+
+    // endregion
+
+    // region INSTANCE VARIABLES
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path pathToInputDirectory;
+    private Path pathToOutputDirectory;
+
+    // endregion
+
+    @Before
+    public void createDirectories()
+            throws Exception
+    {
+        this.pathToInputDirectory = this.folder.newFolder("in").toPath();
+        this.pathToOutputDirectory = this.folder.newFolder("out").toPath();
+
+        writeInput("Checkout-v70.yaml", "- url: https://checkout-test.adyen.com/v70");
+        writeInput("Legacy-v2.yaml", "- url: https://legacy-test.adyen.com/legacy");
+        writeInput("Webhook-v1.yaml", "");
+    }
+
+    @Test
+    public void writesRunReport()
+            throws Exception
+    {
+        OpenApiYamlEditorService service = new OpenApiYamlEditorService(this.pathToInputDirectory.toString(),
+                this.pathToOutputDirectory.toString(), false);
+        service.setWriteRunReport(true);
+        service.setReportedSlowestFileCount(2);
+        service.run();
+
+        String json = new String(Files.readAllBytes(
+                this.pathToOutputDirectory.resolve(OpenApiYamlEditorService.RUN_REPORT_FILE_NAME)),
+                StandardCharsets.UTF_8);
+
+        long inputBytes = 0;
+        long outputBytes = 0;
+        long lines = 0;
+
+        for (String fileName : new String[] {"Checkout-v70.yaml", "Legacy-v2.yaml", "Webhook-v1.yaml"})
+        {
+            String content = new String(Files.readAllBytes(this.pathToInputDirectory.resolve(fileName)),
+                    StandardCharsets.UTF_8);
+
+            inputBytes += content.length();
+            outputBytes += Files.size(this.pathToOutputDirectory.resolve("all").resolve(fileName));
+            lines += content.split("\n").length;
+        }
+
+        assertTrue(json, json.startsWith("{\n  \"elapsedMillis\": "));
+        assertTrue(json, json.endsWith("\n}\n"));
+        assertContains(json, "\n  \"files\": 3,\n");
+        assertContains(json, "\n  \"inputBytes\": " + inputBytes + ",\n");
+        assertContains(json, "\n  \"outputBytes\": " + outputBytes + ",\n");
+        assertContains(json, "\n  \"lines\": " + lines + ",\n");
+        assertContains(json, "\n  \"baseUrl\": {\"amended\": 1, \"no_url_line\": 1, \"no_version_segment\": 1},\n");
+
+        // files left unamended, in whichever order they completed
+        assertContains(json, "{\"path\": \"" + this.pathToInputDirectory.resolve("Legacy-v2.yaml")
+                + "\", \"outcome\": \"no_version_segment\"}");
+        assertContains(json, "{\"path\": \"" + this.pathToInputDirectory.resolve("Webhook-v1.yaml")
+                + "\", \"outcome\": \"no_url_line\"}");
+
+        // every phase is listed, whether or not it was timed in this run
+        for (OpenApiYamlRunStatistics.Phase phase : OpenApiYamlRunStatistics.Phase.values())
+        {
+            assertContains(json, "\n    \"" + phase.getLabel() + "\": {\"count\": ");
+        }
+
+        assertContains(json, "\"file\": {\"count\": 3, \"totalMillis\": ");
+        assertContains(json, "\"latestCopy\": {\"count\": 0, \"totalMillis\": 0.000, ");
+
+        Matcher matcher = SLOWEST_FILE.matcher(json.substring(json.indexOf("\"slowestFiles\": [")));
+        int slowestFileCount = 0;
+
+        while (matcher.find())
+        {
+            slowestFileCount++;
+        }
+
+        assertEquals(json, 2, slowestFileCount);
+    }
+
+    @Test
+    public void writesEmptyListsWithoutFiles()
+    {
+        String json = new OpenApiYamlRunStatistics(OpenApiYamlRunStatistics.DEFAULT_SLOWEST_FILE_COUNT).toJson();
+
+        assertContains(json, "\n  \"files\": 0,\n");
+        assertContains(json, "\n  \"baseUrl\": {\"amended\": 0, \"no_url_line\": 0, \"no_version_segment\": 0},\n");
+        assertContains(json, "\n  \"unamendedBaseUrlFiles\": [],\n");
+        assertContains(json, "\n  \"slowestFiles\": []\n}\n");
+    }
+
+    @Test
+    public void escapesPathsInRunReport()
+            throws Exception
+    {
+        Path pathToInputFile = this.folder.newFolder("quote\"back\\slash\ttab").toPath().resolve("Webhook-v1.yaml");
+        Files.copy(this.pathToInputDirectory.resolve("Webhook-v1.yaml"), pathToInputFile);
+
+        OpenApiYamlFile file = new OpenApiYamlFile(pathToInputFile, this.pathToOutputDirectory,
+                OpenApiYamlFile.EditEngine.LINES);
+        file.amendAndSave();
+
+        OpenApiYamlRunStatistics statistics = new OpenApiYamlRunStatistics(1);
+        statistics.recordFile(file);
+
+        String json = statistics.toJson();
+        String escapedPath = "\"" + pathToInputFile.toString().replace("\\", "\\\\").replace("\"", "\\\"")
+                .replace("\t", "\\u0009") + "\"";
+
+        assertContains(json, "{\"path\": " + escapedPath + ", \"outcome\": \"no_url_line\"}");
+        assertContains(json, "{\"path\": " + escapedPath + ", \"totalMillis\": ");
+    }
+
+    /**
+     * Method to check that a JSON run report contains a fragment.
+     */
+    private static void assertContains(String json, String fragment)
+    {
+        assertTrue("Missing " + fragment + " in " + json, json.contains(fragment));
+    }
+
+    /**
+     * Method to write a minimal OpenAPI document with a server URL line, or none if the line is empty.
+     */
+    private void writeInput(String fileName, String urlLine)
+            throws Exception
+    {
+        String content = String.join("\n",
+                "openapi: 3.1.0",
+                "info:",
+                "  title: Adyen " + fileName.substring(0, fileName.indexOf('-')) + " API",
+                "  version: '1'",
+                urlLine.isEmpty() ? "webhooks:" : "servers:\n" + urlLine,
+                "paths:",
+                "  /payments:",
+                "    post:",
+                "      security:",
+                "      - BasicAuth: []",
+                "      - ApiKeyAuth: []",
+                "      summary: Start a transaction",
+                "");
+
+        Files.write(this.pathToInputDirectory.resolve(fileName), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
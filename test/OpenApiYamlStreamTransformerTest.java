@@ -0,0 +1,90 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * Tests that the stream transformer produces the same output as the line-based engine, and rejects the same inputs.
+ */
+public class OpenApiYamlStreamTransformerTest
+{
+    // region STATIC VARIABLES
+
+    private static final String SPEC = String.join("\n",
+            "openapi: 3.1.0",
+            "info:",
+            "  title: Adyen Checkout API",
+            "  version: '70'",
+            "servers:",
+            "- url: https://checkout-test.adyen.com/v70",
+            "paths:",
+            "  /payments:",
+            "    post:",
+            "      security:",
+            "      - ApiKeyAuth: []",
+            "      summary: Start a transaction \u2013 caf\u00e9",
+            "");
+
+    // endregion
+
+    // region INSTANCE VARIABLES
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // endregion
+
+    @Test
+    public void matchesLineEngine()
+            throws Exception
+    {
+        assertArrayEquals(amendAndSave(SPEC), transform(SPEC.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test(expected = MalformedInputException.class)
+    public void rejectsMalformedInput()
+            throws Exception
+    {
+        byte[] content = SPEC.getBytes(StandardCharsets.UTF_8);
+        content[SPEC.indexOf("summary")] = (byte) 0xFF;
+
+        transform(content);
+    }
+
+    /**
+     * Method to transform a document held in memory, returning the output.
+     */
+    private static byte[] transform(byte[] content)
+            throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new OpenApiYamlStreamTransformer().transform(new ByteArrayInputStream(content), out);
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Method to amend and save a document using the line-based engine, returning the output.
+     */
+    private byte[] amendAndSave(String content)
+            throws Exception
+    {
+        Path pathToInputFile = this.folder.newFolder().toPath().resolve("Checkout-v70.yaml");
+        Files.write(pathToInputFile, content.getBytes(StandardCharsets.UTF_8));
+
+        OpenApiYamlFile file = new OpenApiYamlFile(pathToInputFile, this.folder.newFolder().toPath(),
+                OpenApiYamlFile.EditEngine.LINES);
+        file.amendAndSave();
+
+        return Files.readAllBytes(file.getPathToOutputFile());
+    }
+}
@@ -0,0 +1,102 @@
+import org.junit.Test;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests that the single-pass URL scanner finds the same host as the regular expression it replaced.
+ */
+public class OpenApiYamlUrlScannerTest
+{
+    // region STATIC VARIABLES
+
+    // expression previously used to find the host, for comparison
+    private static final Pattern URL_REGEX = Pattern.compile("(?<=- url: https://).+(?=/v\\d+)");
+
+    private static final String TITLE = "  title: Adyen Checkout API";
+
+    private static final String[] URL_LINES = {
+            "- url: https://checkout-test.adyen.com/v70",
+            "- url: https://checkout-test.adyen.com/v70/",
+            "- url: https://checkout-test.adyen.com/checkout/v70",
+            "- url: https://pal-test.adyen.com/pal/servlet/Payment/v68",
+            "- url: https://host/v1/path/v2/more",
+            "- url: https://host/v1/vx",
+            "- url: https://host/version",
+            "- url: https://host/v",
+            "- url: https://host/v/1",
+            "- url: https://host",
+            "- url: https:///v1",
+            "- url: https://x/v1",
+            "- url: https:///v1/v2",
+            "- url: https://",
+            "- url: https://host/v1\r",
+            "- url: https://host/v1\n/v2",
+            "- url: https://host\r/v1",
+            "- url: https://host\u0085/v1",
+            "- url: https://host\u2028/v1",
+            "- url: https://host/v1\u2029/v2",
+            "- url: https://host/v\u0661",
+            "- url: http://host/v1",
+            "  - url: https://host/v1",
+            ""
+    };
+
+    // endregion
+
+    @Test
+    public void findsSameHostAsRegex()
+    {
+        for (String urlLine : URL_LINES)
+        {
+            Matcher matcher = URL_REGEX.matcher(urlLine);
+            int expected = matcher.find() && matcher.start() == OpenApiYamlFile.urlPrefix.length() ? matcher.end() : -1;
+
+            assertEquals(escape(urlLine), expected, OpenApiYamlFile.findUrlHostEnd(urlLine));
+        }
+    }
+
+    @Test
+    public void amendsSameUrlLinesAsRegex()
+    {
+        for (String urlLine : URL_LINES)
+        {
+            Matcher matcher = URL_REGEX.matcher(urlLine);
+            String expected = matcher.find() && matcher.start() == OpenApiYamlFile.urlPrefix.length()
+                    ? matcher.replaceFirst("{{env.baseUrl.Checkout}}") : null;
+
+            assertEquals(escape(urlLine), expected, OpenApiYamlFile.amendUrlLine(urlLine, TITLE));
+        }
+    }
+
+    @Test
+    public void insertsTitleLiterally()
+    {
+        assertEquals("- url: https://{{env.baseUrl.Pay$1\\Out}}/v1",
+                OpenApiYamlFile.amendUrlLine("- url: https://pal-test.adyen.com/v1", "  title: Adyen Pay$1\\ out API"));
+    }
+
+    @Test
+    public void leavesLineWithoutVersionSegment()
+    {
+        assertNull(OpenApiYamlFile.amendUrlLine("- url: https://checkout-test.adyen.com/checkout", TITLE));
+    }
+
+    /**
+     * Method to make line terminators visible in assertion messages.
+     */
+    private static String escape(String urlLine)
+    {
+        StringBuilder escaped = new StringBuilder();
+
+        for (char c : urlLine.toCharArray())
+        {
+            escaped.append(c < ' ' || c > '~' ? String.format("\\u%04x", (int) c) : String.valueOf(c));
+        }
+
+        return escaped.toString();
+    }
+}